@@ -0,0 +1,71 @@
+package com.backend.cms.benchmark;
+
+import com.backend.cms.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Collection schemas and post payloads shared by the benchmarks. Attributes cycle through the content
+// types, a part of them has a default value and is left out of the payload so the defaults get applied.
+final class BenchmarkSchemas {
+
+    private static final String RICH_TEXT = "<p>Some <strong>rich</strong> text body</p>\n<ul><li>first</li><li>second</li></ul>";
+
+    private BenchmarkSchemas() {
+    }
+
+    static List<Attribute> attributes(int attributeCount) {
+        List<Attribute> attributes = new ArrayList<>(attributeCount);
+        for (int i = 0; i < attributeCount; i++) {
+            String name = "attribute" + i;
+            switch (i % 6) {
+                case 0:
+                    attributes.add(AttributeFactory.createTextAttribute("a" + i, name, ContentType.TEXT, true, 2, 50, false, TextType.SHORT, null));
+                    break;
+                case 1:
+                    attributes.add(AttributeFactory.createNumberAttribute("a" + i, name, ContentType.NUMBER, false, FormatType.INTEGER, null, false, 0, 40));
+                    break;
+                case 2:
+                    attributes.add(AttributeFactory.createDateAttribute("a" + i, name, ContentType.DATE, false, DateType.DATE, null, false));
+                    break;
+                case 3:
+                    attributes.add(AttributeFactory.createRichTextAttribute("a" + i, name, ContentType.RICHTEXT, false, 0, 5000, null));
+                    break;
+                case 4:
+                    attributes.add(AttributeFactory.createNumberAttribute("a" + i, name, ContentType.NUMBER, false, FormatType.DECIMAL, "9.99", false, 0, 1000));
+                    break;
+                default:
+                    attributes.add(AttributeFactory.createTextAttribute("a" + i, name, ContentType.TEXT, false, 0, 500, false, TextType.LONG, "Default summary"));
+                    break;
+            }
+        }
+        return attributes;
+    }
+
+    // Payload as it arrives in a create request, with padded strings and the defaulted attributes left out
+    static Map<String, Object> post(int attributeCount) {
+        Map<String, Object> post = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = "attribute" + i;
+            switch (i % 6) {
+                case 0:
+                    post.put(name, "  Some title " + i + " ");
+                    break;
+                case 1:
+                    post.put(name, i % 40);
+                    break;
+                case 2:
+                    post.put(name, "2023-02-02");
+                    break;
+                case 3:
+                    post.put(name, RICH_TEXT);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return post;
+    }
+}
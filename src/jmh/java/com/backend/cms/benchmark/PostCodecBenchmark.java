@@ -0,0 +1,134 @@
+package com.backend.cms.benchmark;
+
+import com.backend.cms.codec.PostCodec;
+import com.backend.cms.codec.PostJsonWriter;
+import com.backend.cms.dto.PostDTO;
+import com.backend.cms.model.Post;
+import com.backend.cms.validation.PostValidationPlan;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Decoding a page of 10k posts from the BSON the driver receives, through PostCodec against the
+// Document plus Spring Data mapping path reads took before. The json benchmarks write the page as the
+// listing response, straight from the BSON against decoding and serializing PostDTOs.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostCodecBenchmark {
+
+    private static final int PAGE_SIZE = 10_000;
+
+    @Param({"5", "50"})
+    private int attributeCount;
+
+    private List<RawBsonDocument> page;
+    private PostCodec postCodec;
+    private DocumentCodec documentCodec;
+    private MappingMongoConverter converter;
+    private PostValidationPlan plan;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() {
+        plan = PostValidationPlan.compile(BenchmarkSchemas.attributes(attributeCount));
+        postCodec = new PostCodec(MongoClientSettings.getDefaultCodecRegistry(), collectionId -> plan.getAttributeLayout());
+        documentCodec = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+
+        // Posts stored the way PostService stores them
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Map<String, Object> attributes = new HashMap<>(BenchmarkSchemas.post(attributeCount));
+            plan.applyDefaults(attributes);
+            plan.convertForStorage(attributes);
+            Post post = new Post(new ObjectId(), "post" + i, "collection", "user", attributes, null,
+                    new ArrayList<>(plan.getSearchableAttributes()), null, 0L);
+            Document document = new Document();
+            converter.write(post, document);
+            page.add(new RawBsonDocument(document, documentCodec));
+        }
+    }
+
+    @Benchmark
+    public List<Post> postCodec() {
+        List<Post> posts = new ArrayList<>(PAGE_SIZE);
+        for (RawBsonDocument document : page) {
+            posts.add(postCodec.decode(new BsonBinaryReader(document.getByteBuffer().asNIO()), DecoderContext.builder().build()));
+        }
+        return posts;
+    }
+
+    @Benchmark
+    public List<Post> springMapping() {
+        List<Post> posts = new ArrayList<>(PAGE_SIZE);
+        for (RawBsonDocument document : page) {
+            Document decoded = documentCodec.decode(new BsonBinaryReader(document.getByteBuffer().asNIO()), DecoderContext.builder().build());
+            posts.add(converter.read(Post.class, decoded));
+        }
+        return posts;
+    }
+
+    @Benchmark
+    public long jsonPassthrough() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (RawBsonDocument document : page) {
+                PostJsonWriter.write(document, generator, plan::toOutputValue);
+            }
+            generator.writeEndArray();
+        }
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long jsonThroughPostDto() throws IOException {
+        List<PostDTO> posts = new ArrayList<>(PAGE_SIZE);
+        for (Post post : postCodec()) {
+            plan.formatForOutput(post.getAttributes());
+            posts.add(PostDTO.fromPost(post));
+        }
+        CountingOutputStream outputStream = new CountingOutputStream();
+        objectMapper.writeValue(outputStream, posts);
+        return outputStream.count;
+    }
+
+    // Discards the response, only its size is kept
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.backend.cms.benchmark;
+
+import com.backend.cms.model.Attribute;
+import com.backend.cms.service.PostSearchIndex;
+import com.backend.cms.utils.FieldCleaner;
+import com.backend.cms.validation.PostValidationPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-post cost of the steps PostService.createPost runs on the attributes of a post, for small,
+// medium and large collection schemas
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostValidationBenchmark {
+
+    private static final PostValidationPlan.UniquenessCheck NO_DUPLICATES = (attributeName, value) -> false;
+
+    @Param({"5", "50", "200"})
+    private int attributeCount;
+
+    private List<Attribute> attributes;
+    private Map<String, Object> post;
+    private Map<String, Object> defaultedPost;
+    private PostValidationPlan plan;
+
+    @Setup
+    public void setUp() {
+        attributes = BenchmarkSchemas.attributes(attributeCount);
+        post = BenchmarkSchemas.post(attributeCount);
+        plan = PostValidationPlan.compile(attributes);
+        defaultedPost = new HashMap<>(post);
+        plan.applyDefaults(defaultedPost);
+    }
+
+    @Benchmark
+    public Map<String, Object> compiledPlan() {
+        Map<String, Object> postAttributes = new HashMap<>(post);
+        plan.applyDefaults(postAttributes);
+        plan.validate(postAttributes, NO_DUPLICATES);
+        return postAttributes;
+    }
+
+    @Benchmark
+    public Map<String, Object> compilePerPost() {
+        Map<String, Object> postAttributes = new HashMap<>(post);
+        PostValidationPlan perPostPlan = PostValidationPlan.compile(attributes);
+        perPostPlan.applyDefaults(postAttributes);
+        perPostPlan.validate(postAttributes, NO_DUPLICATES);
+        return postAttributes;
+    }
+
+    @Benchmark
+    public Map<String, Object> applyDefaults() {
+        Map<String, Object> postAttributes = new HashMap<>(post);
+        plan.applyDefaults(postAttributes);
+        return postAttributes;
+    }
+
+    @Benchmark
+    public Map<String, Object> validate() {
+        plan.validate(defaultedPost, NO_DUPLICATES);
+        return defaultedPost;
+    }
+
+    @Benchmark
+    public Map<String, Object> trimAttributes() {
+        return FieldCleaner.trimAttributes(defaultedPost);
+    }
+
+    // Everything createPost does before the insert: defaults, validation, trimming, typed values and search text
+    @Benchmark
+    public Object createPostPipeline() {
+        Map<String, Object> postAttributes = new HashMap<>(post);
+        plan.applyDefaults(postAttributes);
+        plan.validate(postAttributes, NO_DUPLICATES);
+        Map<String, Object> trimmedAttributes = FieldCleaner.trimAttributes(postAttributes);
+        plan.convertForStorage(trimmedAttributes);
+        return PostSearchIndex.textsFor(plan.getSearchableAttributes(), trimmedAttributes);
+    }
+}
@@ -0,0 +1,45 @@
+package com.backend.cms.benchmark;
+
+import com.backend.cms.utils.FieldCleaner;
+import com.backend.cms.utils.Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Field cleaning of user and collection input and id generation, single threaded and contended
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UtilsBenchmark {
+
+    @Param({"short", "long"})
+    private String field;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        value = field.equals("short")
+                ? "  Jane   Doe "
+                : "  A   collection description\twith  several\n lines and   repeated   white space ".repeat(8);
+    }
+
+    @Benchmark
+    public String cleanField() {
+        return FieldCleaner.cleanField(value);
+    }
+
+    @Benchmark
+    public String generateId() {
+        return Generator.generateId("p");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateIdContended() {
+        return Generator.generateId("p");
+    }
+}
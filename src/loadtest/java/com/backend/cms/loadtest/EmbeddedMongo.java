@@ -0,0 +1,53 @@
+package com.backend.cms.loadtest;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodProcess;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.process.runtime.Network;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+// Local mongod downloaded and started by flapdoodle, so a load test needs no database of its own
+final class EmbeddedMongo implements AutoCloseable {
+
+    private final MongodExecutable executable;
+    private final MongodProcess process;
+    private final int port;
+
+    private EmbeddedMongo(MongodExecutable executable, MongodProcess process, int port) {
+        this.executable = executable;
+        this.process = process;
+        this.port = port;
+    }
+
+    // version is a flapdoodle Version.Main name without the V, e.g. 4_0
+    static EmbeddedMongo start(String version) throws IOException {
+        int port = freePort();
+        MongodConfig config = MongodConfig.builder()
+                .version(Version.Main.valueOf("V" + version))
+                .net(new Net(port, Network.localhostIsIPv6()))
+                .build();
+        MongodExecutable executable = MongodStarter.getDefaultInstance().prepare(config);
+        return new EmbeddedMongo(executable, executable.start(), port);
+    }
+
+    String uri(String database) {
+        return "mongodb://localhost:" + port + "/" + database;
+    }
+
+    @Override
+    public void close() {
+        process.stop();
+        executable.stop();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.backend.cms.loadtest;
+
+import com.backend.cms.CmsApplication;
+import com.backend.cms.model.AccountStatus;
+import com.backend.cms.model.User;
+import com.backend.cms.model.UserType;
+import com.backend.cms.repository.UserRepository;
+import com.backend.cms.security.jwt.JwtTokenUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end load test: boots CmsApplication against an embedded mongod (or the mongod of loadtest.mongo-uri),
+// seeds synthetic collections and posts through the REST API, drives a weighted mix of reads and writes with
+// a fixed number of concurrent clients and reports p50/p90/p99 latency and throughput per endpoint.
+// The results are also written as JSON, so runs with the same options can be compared as a baseline.
+public final class LoadTest {
+
+    private static final String[] WORDS = {
+            "cloud", "native", "content", "release", "update", "guide", "launch", "market", "design", "system",
+            "mobile", "search", "secure", "fast", "simple", "modern", "team", "product", "review", "weekly",
+            "summer", "winter", "travel", "recipe", "garden", "music", "health", "science", "history", "future"
+    };
+
+    enum Endpoint {
+        LIST, GET, QUERY, SEARCH, CREATE, UPDATE
+    }
+
+    private record Target(String collectionId, List<String> postIds) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private final String database = System.getProperty("loadtest.database", "cms_loadtest");
+    private final int collections = Integer.getInteger("loadtest.collections", 2);
+    private final int postsPerCollection = Integer.getInteger("loadtest.posts", 10000);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 60);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final String mix = System.getProperty("loadtest.mix", "list=30,get=25,query=15,search=10,create=10,update=10");
+    private final String resultFile = System.getProperty("loadtest.result-file", "target/loadtest-result.json");
+
+    private String baseUrl;
+    private String token;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+        // Daemon threads of the application are left behind otherwise
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        String mongoUri = System.getProperty("loadtest.mongo-uri");
+        EmbeddedMongo embeddedMongo = null;
+        if (mongoUri == null) {
+            embeddedMongo = EmbeddedMongo.start(System.getProperty("loadtest.mongo-version", "4_0"));
+            mongoUri = embeddedMongo.uri(database);
+        }
+
+        try {
+            // Every run starts from the same empty database
+            try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
+                mongoClient.getDatabase(database).drop();
+            }
+
+            try (ConfigurableApplicationContext context = SpringApplication.run(CmsApplication.class, applicationArguments(mongoUri))) {
+                baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                token = adminToken(context);
+
+                List<Target> targets = seed();
+                Map<Endpoint, Integer> weights = parseMix(mix);
+
+                System.out.printf("Warming up for %d s with %d clients%n", warmupSeconds, concurrency);
+                drive(targets, weights, warmupSeconds);
+                System.out.printf("Measuring for %d s with %d clients%n", durationSeconds, concurrency);
+                long start = System.nanoTime();
+                Map<Endpoint, LatencyRecorder> results = drive(targets, weights, durationSeconds);
+                report(results, System.nanoTime() - start);
+            }
+        } finally {
+            if (embeddedMongo != null) {
+                embeddedMongo.close();
+            }
+        }
+    }
+
+    // Command line arguments take precedence over application.properties and the test profile
+    private String[] applicationArguments(String mongoUri) {
+        return new String[]{
+                "--spring.profiles.active=loadtest",
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--spring.data.mongodb.database=" + database,
+                "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration",
+                "--server.port=0",
+                "--jwt.secret=" + System.getProperty("loadtest.jwt-secret", "loadtest-secret"),
+                "--ratelimit.enabled=false",
+                "--mail.outbox.enabled=false",
+                // The mail sender needs credentials to be created, no mail is sent with the outbox disabled
+                "--spring.mail.username=loadtest",
+                "--spring.mail.password=loadtest",
+                "--logging.level.root=WARN",
+                "--posts.page.max-size=200"
+        };
+    }
+
+    private String adminToken(ConfigurableApplicationContext context) {
+        User admin = new User("Load", "Test", "loadtest@example.com", UserType.ADMIN, AccountStatus.CREATED);
+        admin.setUserId("uloadtest");
+        context.getBean(UserRepository.class).save(admin);
+        return context.getBean(JwtTokenUtil.class).generateToken(admin.getUserId(), UserType.ADMIN);
+    }
+
+    private List<Target> seed() throws Exception {
+        List<Target> targets = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int c = 0; c < collections; c++) {
+            long start = System.nanoTime();
+            Map<String, Object> collection = Map.of("name", "Loadtest " + letters(c), "description", "Synthetic posts for load testing");
+            String collectionId = send("POST", "/api/v1/collections", collection).get("id").asText();
+
+            addAttribute(collectionId, Map.of("name", "Title", "contentType", "TEXT", "textType", "SHORT",
+                    "minimumLength", 2, "maximumLength", 50, "required", true, "filterable", true));
+            addAttribute(collectionId, Map.of("name", "Body", "contentType", "RICHTEXT",
+                    "minimumLength", 2, "maximumRichTextLength", 5000));
+            addAttribute(collectionId, Map.of("name", "Price", "contentType", "NUMBER", "formatType", "INTEGER",
+                    "minimumValue", 0, "maximumValue", 40, "filterable", true, "sortable", true));
+            addAttribute(collectionId, Map.of("name", "Published", "contentType", "DATE", "dateType", "DATE", "sortable", true));
+
+            for (int offset = 0; offset < postsPerCollection; offset += 1000) {
+                List<Map<String, Object>> batch = new ArrayList<>();
+                for (int i = offset; i < Math.min(postsPerCollection, offset + 1000); i++) {
+                    batch.add(Map.of("attributes", randomPost(random)));
+                }
+                send("POST", "/api/v1/posts/" + collectionId + "/bulk?ordered=false", batch);
+            }
+
+            targets.add(new Target(collectionId, postIds(collectionId)));
+            awaitIndexes(collectionId);
+            System.out.printf("Seeded collection %s with %d posts in %d ms%n", collectionId, postsPerCollection,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return targets;
+    }
+
+    private void addAttribute(String collectionId, Map<String, Object> attribute) throws Exception {
+        send("POST", "/api/v1/collections/" + collectionId + "/attributes", attribute);
+    }
+
+    // Ids of up to 10000 posts of the collection, read through the cursor pagination
+    private List<String> postIds(String collectionId) throws Exception {
+        List<String> postIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = "/api/v1/posts/collection/" + collectionId + "?size=200&fields=Title"
+                    + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = send("GET", path, null);
+            page.get("posts").forEach(post -> postIds.add(post.get("id").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null && postIds.size() < 10000);
+        return postIds;
+    }
+
+    // The attribute indexes are built in the background, measuring before they are ready measures collection scans
+    private void awaitIndexes(String collectionId) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            JsonNode indexes = send("GET", "/api/v1/collections/" + collectionId, null).path("indexes");
+            boolean ready = true;
+            for (JsonNode index : indexes) {
+                ready &= "READY".equals(index.path("state").asText());
+            }
+            if (ready) {
+                return;
+            }
+            TimeUnit.MILLISECONDS.sleep(200);
+        }
+        System.out.printf("Attribute indexes of %s are not ready, continuing anyway%n", collectionId);
+    }
+
+    private Map<Endpoint, LatencyRecorder> drive(List<Target> targets, Map<Endpoint, Integer> weights, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Map<Endpoint, LatencyRecorder>> perWorker = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+            perWorker.add(recorders);
+            SplittableRandom random = new SplittableRandom(seed + w + 1);
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    Endpoint endpoint = pick(weights, random);
+                    Target target = targets.get(random.nextInt(targets.size()));
+                    long start = System.nanoTime();
+                    boolean success = call(endpoint, target, random);
+                    recorders.computeIfAbsent(endpoint, e -> new LatencyRecorder()).record(System.nanoTime() - start, success);
+                }
+            }, "loadtest-" + w);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Map<Endpoint, LatencyRecorder> merged = new EnumMap<>(Endpoint.class);
+        for (Map<Endpoint, LatencyRecorder> recorders : perWorker) {
+            recorders.forEach((endpoint, recorder) -> merged.computeIfAbsent(endpoint, e -> new LatencyRecorder()).merge(recorder));
+        }
+        return merged;
+    }
+
+    private boolean call(Endpoint endpoint, Target target, SplittableRandom random) {
+        String collectionId = target.collectionId();
+        String postId = target.postIds().get(random.nextInt(target.postIds().size()));
+        try {
+            switch (endpoint) {
+                case LIST:
+                    return request("GET", "/api/v1/posts/collection/" + collectionId + "?size=50", null) < 300;
+                case GET:
+                    return request("GET", "/api/v1/posts/" + postId, null) < 300;
+                case QUERY:
+                    int low = random.nextInt(30);
+                    Map<String, Object> query = Map.of(
+                            "filters", List.of(Map.of("attribute", "Price", "op", "range", "gte", low, "lt", low + 10)),
+                            "sort", Map.of("attribute", "Published", "direction", "desc"),
+                            "size", 20);
+                    return request("POST", "/api/v1/posts/" + collectionId + "/query", query) < 300;
+                case SEARCH:
+                    String term = URLEncoder.encode(WORDS[random.nextInt(WORDS.length)], StandardCharsets.UTF_8);
+                    return request("GET", "/api/v1/posts/" + collectionId + "/search?size=20&q=" + term, null) < 300;
+                case CREATE:
+                    return request("POST", "/api/v1/posts/" + collectionId, Map.of("attributes", randomPost(random))) < 300;
+                default:
+                    Map<String, Object> update = Map.of("attributes", Map.of("Title", sentence(random, 3)));
+                    return request("PATCH", "/api/v1/posts/" + collectionId + "/" + postId, update) < 300;
+            }
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Map<String, Object> randomPost(SplittableRandom random) {
+        Map<String, Object> post = new LinkedHashMap<>();
+        post.put("Title", sentence(random, 3));
+        post.put("Body", "<p>" + sentence(random, 40) + "</p>");
+        post.put("Price", random.nextInt(41));
+        post.put("Published", LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500)).toString());
+        return post;
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sentence.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    // Collection names may only contain letters
+    private static String letters(int index) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.insert(0, (char) ('A' + index % 26));
+            index = index / 26 - 1;
+        } while (index >= 0);
+        return letters.toString();
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    private static Endpoint pick(Map<Endpoint, Integer> weights, SplittableRandom random) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int choice = random.nextInt(total);
+        for (Map.Entry<Endpoint, Integer> weight : weights.entrySet()) {
+            choice -= weight.getValue();
+            if (choice < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private JsonNode send(String method, String path, Object body) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(httpRequest(method, path, body), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(method + " " + path + " failed with " + response.statusCode() + ": "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return response.body().length > 0 ? objectMapper.readTree(response.body()) : objectMapper.nullNode();
+    }
+
+    // Reads the whole response, so the measured latency includes the transfer of the body
+    private int request(String method, String path, Object body) throws IOException, InterruptedException {
+        return httpClient.send(httpRequest(method, path, body), HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    private HttpRequest httpRequest(String method, String path, Object body) throws IOException {
+        HttpRequest.BodyPublisher publisher = body != null
+                ? HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))
+                : HttpRequest.BodyPublishers.noBody();
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .method(method, publisher)
+                .build();
+    }
+
+    private void report(Map<Endpoint, LatencyRecorder> results, long elapsedNanos) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        LatencyRecorder total = new LatencyRecorder();
+        System.out.printf("%n%-8s %10s %8s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<Endpoint, LatencyRecorder> result : results.entrySet()) {
+            Map<String, Object> summary = result.getValue().summary(elapsedNanos);
+            endpoints.put(result.getKey().name().toLowerCase(), summary);
+            total.merge(result.getValue());
+            print(result.getKey().name().toLowerCase(), summary);
+        }
+        Map<String, Object> totalSummary = total.summary(elapsedNanos);
+        print("total", totalSummary);
+
+        Map<String, Object> options = new LinkedHashMap<>();
+        options.put("collections", collections);
+        options.put("postsPerCollection", postsPerCollection);
+        options.put("concurrency", concurrency);
+        options.put("warmupSeconds", warmupSeconds);
+        options.put("durationSeconds", durationSeconds);
+        options.put("mix", mix);
+        options.put("seed", seed);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options);
+        result.put("endpoints", endpoints);
+        result.put("total", totalSummary);
+        File file = new File(resultFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, result);
+        System.out.printf("%nResults written to %s%n", file.getPath());
+    }
+
+    private static void print(String name, Map<String, Object> summary) {
+        System.out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", name, summary.get("requests"), summary.get("errors"),
+                summary.get("throughput"), summary.get("p50"), summary.get("p90"), summary.get("p99"), summary.get("max"));
+    }
+}
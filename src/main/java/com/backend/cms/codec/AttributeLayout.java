@@ -0,0 +1,34 @@
+package com.backend.cms.codec;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Position of every attribute of a collection schema, shared by the CompactAttributeMap of all its posts
+public final class AttributeLayout {
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    public AttributeLayout(List<String> names) {
+        this.names = names.toArray(new String[0]);
+        this.indexes = new HashMap<>(names.size() * 2);
+        for (int i = 0; i < this.names.length; i++) {
+            indexes.put(this.names[i], i);
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    String nameAt(int index) {
+        return names[index];
+    }
+
+    // Position of the attribute, -1 when the schema has no such attribute
+    int indexOf(Object name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+}
@@ -0,0 +1,202 @@
+package com.backend.cms.codec;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+// Attributes of a post as one value array in the order of the collection schema. The names are shared
+// through the layout, so a post holds no map entries or key strings of its own. Attributes the schema
+// does not know, e.g. of a removed attribute, are kept in a regular map next to it.
+public final class CompactAttributeMap extends AbstractMap<String, Object> {
+
+    private static final Object ABSENT = new Object();
+
+    private final AttributeLayout layout;
+    private final Object[] values;
+    private int size;
+    private Map<String, Object> overflow;
+
+    public CompactAttributeMap(AttributeLayout layout) {
+        this.layout = layout;
+        this.values = new Object[layout.size()];
+        Arrays.fill(values, ABSENT);
+    }
+
+    @Override
+    public int size() {
+        return size + (overflow != null ? overflow.size() : 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int index = layout.indexOf(key);
+        if (index >= 0) {
+            return values[index] != ABSENT;
+        }
+        return overflow != null && overflow.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = layout.indexOf(key);
+        if (index >= 0) {
+            Object value = values[index];
+            return value != ABSENT ? value : null;
+        }
+        return overflow != null ? overflow.get(key) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = layout.indexOf(key);
+        if (index < 0) {
+            if (overflow == null) {
+                overflow = new LinkedHashMap<>();
+            }
+            return overflow.put(key, value);
+        }
+        Object previous = values[index];
+        values[index] = value;
+        if (previous == ABSENT) {
+            size++;
+            return null;
+        }
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int index = layout.indexOf(key);
+        if (index < 0) {
+            return overflow != null ? overflow.remove(key) : null;
+        }
+        Object previous = values[index];
+        if (previous == ABSENT) {
+            return null;
+        }
+        values[index] = ABSENT;
+        size--;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, ABSENT);
+        size = 0;
+        overflow = null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactAttributeMap.this.size();
+            }
+        };
+    }
+
+    // Schema attributes in schema order, then the other attributes
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+        private int next = advance(0);
+        private int current = -1;
+        private Iterator<Entry<String, Object>> overflowIterator;
+
+        private int advance(int from) {
+            int index = from;
+            while (index < values.length && values[index] == ABSENT) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+            if (overflowIterator == null && overflow != null) {
+                overflowIterator = overflow.entrySet().iterator();
+            }
+            return overflowIterator != null && overflowIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (next < values.length) {
+                current = next;
+                next = advance(next + 1);
+                return new SlotEntry(current);
+            }
+            current = -1;
+            return overflowIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (overflowIterator != null && current < 0) {
+                overflowIterator.remove();
+                return;
+            }
+            if (current < 0 || values[current] == ABSENT) {
+                throw new IllegalStateException();
+            }
+            values[current] = ABSENT;
+            size--;
+        }
+    }
+
+    private final class SlotEntry implements Entry<String, Object> {
+
+        private final int index;
+
+        private SlotEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return layout.nameAt(index);
+        }
+
+        @Override
+        public Object getValue() {
+            Object value = values[index];
+            return value != ABSENT ? value : null;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = getValue();
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry<?, ?> entry
+                    && getKey().equals(entry.getKey())
+                    && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+    }
+}
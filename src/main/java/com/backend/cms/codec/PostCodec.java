@@ -0,0 +1,264 @@
+package com.backend.cms.codec;
+
+import com.backend.cms.model.Post;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Hand-written codec for posts, reading the BSON of a post straight into a Post without reflection or an
+// intermediate Document. The attributes of a post of a known collection are read into a CompactAttributeMap
+// laid out by its schema. Posts are written with collectionId before the attributes, so the layout is
+// known by the time they are read; otherwise they are read into a regular map.
+// Attribute values are read as the same Java types the Spring Data mapping reads them as.
+public class PostCodec implements CollectibleCodec<Post> {
+
+    private static final BsonValueCodec BSON_VALUE_CODEC = new BsonValueCodec();
+
+    private final CodecRegistry codecRegistry;
+
+    // Layout of the attributes of a collection, or null when the collection is not known
+    private final Function<String, AttributeLayout> layouts;
+
+    public PostCodec(CodecRegistry codecRegistry, Function<String, AttributeLayout> layouts) {
+        this.codecRegistry = codecRegistry;
+        this.layouts = layouts;
+    }
+
+    @Override
+    public Post decode(BsonReader reader, DecoderContext decoderContext) {
+        Post post = new Post();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id":
+                    post.set_id(reader.readObjectId());
+                    break;
+                case "postId":
+                    post.setPostId(reader.readString());
+                    break;
+                case "collectionId":
+                    post.setCollectionId(reader.readString());
+                    break;
+                case "userId":
+                    post.setUserId(reader.readString());
+                    break;
+                case "attributes":
+                    post.setAttributes(readAttributes(reader, post.getCollectionId(), decoderContext));
+                    break;
+                case "uniqueKeys":
+                    post.setUniqueKeys(readStrings(reader));
+                    break;
+                case "searchText":
+                    post.setSearchText(readStrings(reader));
+                    break;
+                case "score":
+                    post.setScore((float) reader.readDouble());
+                    break;
+                case "version":
+                    post.setVersion(readLong(reader));
+                    break;
+                default:
+                    // _class written by Spring Data and fields of other versions
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.readEndDocument();
+        return post;
+    }
+
+    private Map<String, Object> readAttributes(BsonReader reader, String collectionId, DecoderContext decoderContext) {
+        AttributeLayout layout = collectionId != null ? layouts.apply(collectionId) : null;
+        Map<String, Object> attributes = layout != null ? new CompactAttributeMap(layout) : new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            attributes.put(name, readValue(reader, decoderContext));
+        }
+        reader.readEndDocument();
+        return attributes;
+    }
+
+    // Also used by PostJsonWriter, so both read paths return attribute values with the same types
+    static Object readValue(BsonReader reader, DecoderContext decoderContext) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                return reader.readString();
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DOUBLE:
+                return reader.readDouble();
+            case DECIMAL128:
+                return reader.readDecimal128();
+            case DATE_TIME:
+                return new Date(reader.readDateTime());
+            case BOOLEAN:
+                return reader.readBoolean();
+            case OBJECT_ID:
+                return reader.readObjectId();
+            case NULL:
+                reader.readNull();
+                return null;
+            case DOCUMENT:
+                Map<String, Object> document = new LinkedHashMap<>();
+                reader.readStartDocument();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    document.put(reader.readName(), readValue(reader, decoderContext));
+                }
+                reader.readEndDocument();
+                return document;
+            case ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    list.add(readValue(reader, decoderContext));
+                }
+                reader.readEndArray();
+                return list;
+            default:
+                // Types the API never writes, e.g. binary or regular expressions
+                return BSON_VALUE_CODEC.decode(reader, decoderContext);
+        }
+    }
+
+    // Tolerates the nulls and documents a positional update leaves in a shorter array or a missing field
+    private static List<String> readStrings(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> strings = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.STRING) {
+                strings.add(reader.readString());
+            } else {
+                reader.skipValue();
+                strings.add("");
+            }
+        }
+        reader.readEndArray();
+        return strings;
+    }
+
+    private static Long readLong(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.INT32 ? (long) reader.readInt32() : reader.readInt64();
+    }
+
+    // Writes the fields in the order Spring Data writes them, the search score is never stored
+    @Override
+    public void encode(BsonWriter writer, Post post, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (post.get_id() != null) {
+            writer.writeObjectId("_id", post.get_id());
+        }
+        writeString(writer, "postId", post.getPostId());
+        writeString(writer, "collectionId", post.getCollectionId());
+        writeString(writer, "userId", post.getUserId());
+        if (post.getAttributes() != null) {
+            writer.writeName("attributes");
+            writeMap(writer, post.getAttributes(), encoderContext);
+        }
+        writeStrings(writer, "uniqueKeys", post.getUniqueKeys());
+        writeStrings(writer, "searchText", post.getSearchText());
+        if (post.getVersion() != null) {
+            writer.writeInt64("version", post.getVersion());
+        }
+        writer.writeEndDocument();
+    }
+
+    private void writeMap(BsonWriter writer, Map<?, ?> map, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writer.writeName(entry.getKey().toString());
+            writeValue(writer, entry.getValue(), encoderContext);
+        }
+        writer.writeEndDocument();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeValue(BsonWriter writer, Object value, EncoderContext encoderContext) {
+        if (value == null) {
+            writer.writeNull();
+        } else if (value instanceof String string) {
+            writer.writeString(string);
+        } else if (value instanceof Map<?, ?> map) {
+            writeMap(writer, map, encoderContext);
+        } else if (value instanceof Iterable<?> iterable) {
+            writer.writeStartArray();
+            for (Object element : iterable) {
+                writeValue(writer, element, encoderContext);
+            }
+            writer.writeEndArray();
+        } else {
+            Encoder<Object> encoder = (Encoder<Object>) codecRegistry.get(value.getClass());
+            encoderContext.encodeWithChildContext(encoder, writer, value);
+        }
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    private static void writeStrings(BsonWriter writer, String name, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        writer.writeStartArray(name);
+        for (String value : values) {
+            writer.writeString(value);
+        }
+        writer.writeEndArray();
+    }
+
+    @Override
+    public Class<Post> getEncoderClass() {
+        return Post.class;
+    }
+
+    @Override
+    public Post generateIdIfAbsentFromDocument(Post post) {
+        if (post.get_id() == null) {
+            post.set_id(new ObjectId());
+        }
+        return post;
+    }
+
+    @Override
+    public boolean documentHasId(Post post) {
+        return post.get_id() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(Post post) {
+        if (post.get_id() == null) {
+            throw new IllegalStateException("The post has no _id");
+        }
+        return new BsonObjectId(post.get_id());
+    }
+}
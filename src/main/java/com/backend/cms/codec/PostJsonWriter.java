@@ -0,0 +1,108 @@
+package com.backend.cms.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonReader;
+import org.bson.BsonReaderMark;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.function.BiFunction;
+
+// Writes a stored post as the JSON of its PostDTO straight from the BSON returned by Mongo, without
+// decoding a Post and copying it into a PostDTO first. The generator has to come from the application
+// ObjectMapper, attribute values other than text are serialized by it like in the PostDTO path.
+public final class PostJsonWriter {
+
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private PostJsonWriter() {
+    }
+
+    // outputValue turns a stored attribute value into its response value, see PostValidationPlan.toOutputValue
+    public static void write(RawBsonDocument post, JsonGenerator generator, BiFunction<String, Object, Object> outputValue) throws IOException {
+        String postId = null;
+        String collectionId = null;
+        String userId = null;
+        Long version = null;
+        BsonReaderMark attributes = null;
+
+        // The metadata is read first, the attributes are written between it and the version like PostDTO has them.
+        // Read from the bytes in place, RawBsonDocument.asBsonReader decodes the whole document first.
+        try (BsonReader reader = new BsonBinaryReader(post.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                BsonType type = reader.getCurrentBsonType();
+                if (name.equals("postId") && type == BsonType.STRING) {
+                    postId = reader.readString();
+                } else if (name.equals("collectionId") && type == BsonType.STRING) {
+                    collectionId = reader.readString();
+                } else if (name.equals("userId") && type == BsonType.STRING) {
+                    userId = reader.readString();
+                } else if (name.equals("version") && (type == BsonType.INT64 || type == BsonType.INT32)) {
+                    version = type == BsonType.INT64 ? reader.readInt64() : reader.readInt32();
+                } else if (name.equals("attributes") && type == BsonType.DOCUMENT) {
+                    attributes = reader.getMark();
+                    reader.skipValue();
+                } else {
+                    reader.skipValue();
+                }
+            }
+
+            generator.writeStartObject();
+            generator.writeStringField("id", postId);
+            generator.writeStringField("collectionId", collectionId);
+            generator.writeStringField("userId", userId);
+            generator.writeFieldName("attributes");
+            if (attributes != null) {
+                attributes.reset();
+                writeAttributes(reader, generator, outputValue);
+            } else {
+                generator.writeNull();
+            }
+            generator.writeFieldName("version");
+            if (version != null) {
+                generator.writeNumber(version);
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeAttributes(BsonReader reader, JsonGenerator generator,
+                                        BiFunction<String, Object, Object> outputValue) throws IOException {
+        generator.writeStartObject();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            generator.writeFieldName(name);
+            writeValue(generator, outputValue.apply(name, PostCodec.readValue(reader, DECODER_CONTEXT)));
+        }
+        reader.readEndDocument();
+        generator.writeEndObject();
+    }
+
+    // Scalars are written like Jackson writes them, everything else is serialized by the ObjectMapper
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof String text) {
+            generator.writeString(text);
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Double number) {
+            generator.writeNumber(number);
+        } else if (value instanceof BigDecimal number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else {
+            generator.writeObject(value);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.backend.cms.dto.CollectionDTO;
 import com.backend.cms.model.*;
 import com.backend.cms.request.CreateAttributeRequest;
 import com.backend.cms.request.CreateCollectionRequest;
+import com.backend.cms.service.AttributeIndexManager;
 import com.backend.cms.service.AuthService;
 import com.backend.cms.service.CollectionService;
 import com.backend.cms.service.SecurityHelper;
@@ -25,6 +26,9 @@ public class CollectionController {
     @Autowired
     private CollectionService collectionService;
 
+    @Autowired
+    private AttributeIndexManager attributeIndexManager;
+
     @Autowired
     private SecurityHelper securityHelper;
 
@@ -49,14 +53,14 @@ public class CollectionController {
     public CollectionDTO findById(@PathVariable("id") String id) {
         LOGGER.info("Finding collection entry with id: {}", id);
         Collection collection = collectionService.findCollectionFailIfNotFound(id);
-        return CollectionDTO.fromCollection(collection);
+        return withIndexStatus(collection);
     }
 
     @RequestMapping(value = "name/{apiId}", method = RequestMethod.GET)
     public CollectionDTO findByApiId(@PathVariable("apiId") String apiId) {
         LOGGER.info("Finding collection entry with name (apiId): {}", apiId);
         Collection collection = collectionService.findCollectionByNameFailIfNotFound(apiId);
-        return CollectionDTO.fromCollection(collection);
+        return withIndexStatus(collection);
     }
 
     @RequestMapping(method = RequestMethod.GET)
@@ -92,4 +96,11 @@ public class CollectionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    // The schema endpoints also report the build state of the attribute indexes
+    private CollectionDTO withIndexStatus(Collection collection) {
+        CollectionDTO collectionDTO = CollectionDTO.fromCollection(collection);
+        collectionDTO.setIndexes(attributeIndexManager.statusOf(collection));
+        return collectionDTO;
+    }
 }
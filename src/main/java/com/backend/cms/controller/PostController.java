@@ -1,21 +1,34 @@
 package com.backend.cms.controller;
 
+import com.backend.cms.dto.BulkPostResultDTO;
 import com.backend.cms.dto.PostDTO;
+import com.backend.cms.dto.PostPageDTO;
+import com.backend.cms.exceptions.ConflictException;
 import com.backend.cms.exceptions.NotFoundException;
 import com.backend.cms.model.Post;
 import com.backend.cms.repository.PostRepository;
 import com.backend.cms.request.CreatePostRequest;
 import com.backend.cms.request.EditPostRequest;
+import com.backend.cms.request.PostQueryRequest;
 import com.backend.cms.service.AuthService;
 import com.backend.cms.service.PostService;
+import com.backend.cms.utils.FieldSelection;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @CrossOrigin(origins = {"http://localhost:3000", "https://webease-frontend.vercel.app"})
@@ -31,8 +44,13 @@ public class PostController {
 
     @Autowired
     private PostRepository postRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
     private static final Logger LOGGER = LoggerFactory.getLogger(PostController.class);
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     @RequestMapping(value = "/{collectionId}", method = RequestMethod.POST)
     public ResponseEntity<?> createPost(
             @PathVariable String collectionId,
@@ -50,21 +68,141 @@ public class PostController {
         }
     }
 
+    @RequestMapping(value = "/{collectionId}/bulk", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createPosts(
+            @PathVariable String collectionId,
+            @RequestParam(defaultValue = "true") boolean ordered,
+            @RequestBody List<CreatePostRequest> requests) {
+        return createPostsInBulk(collectionId, requests, ordered);
+    }
+
+    @RequestMapping(value = "/{collectionId}/bulk", method = RequestMethod.POST, consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> createPostsFromNdjson(
+            @PathVariable String collectionId,
+            @RequestParam(defaultValue = "true") boolean ordered,
+            HttpServletRequest servletRequest) {
+        List<CreatePostRequest> requests;
+        try {
+            // Checked before the body is read, so only editors can make the server read a bulk request
+            authService.checkIfUserIsEditorOrAdminOrThrowException();
+            requests = readNdjson(servletRequest);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Invalid post line in bulk request: {}", e.getOriginalMessage());
+            return ResponseEntity.badRequest().body("Invalid post line: " + e.getOriginalMessage());
+        } catch (Exception e) {
+            LOGGER.error("Error reading bulk request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return createPostsInBulk(collectionId, requests, ordered);
+    }
+
+    // Stops at the first post past posts.bulk.max-size, so an oversized request is never buffered
+    private List<CreatePostRequest> readNdjson(HttpServletRequest servletRequest) throws IOException {
+        int maxBulkSize = postService.getMaxBulkSize();
+        List<CreatePostRequest> requests = new ArrayList<>();
+        try (MappingIterator<CreatePostRequest> lines = objectMapper.readerFor(CreatePostRequest.class).readValues(servletRequest.getInputStream())) {
+            while (lines.hasNextValue()) {
+                if (requests.size() == maxBulkSize) {
+                    throw new IllegalArgumentException("A bulk request cannot contain more than " + maxBulkSize + " posts.");
+                }
+                requests.add(lines.nextValue());
+            }
+        }
+        return requests;
+    }
+
+    private ResponseEntity<?> createPostsInBulk(String collectionId, List<CreatePostRequest> requests, boolean ordered) {
+        try {
+            authService.checkIfUserIsEditorOrAdminOrThrowException();
+            LOGGER.info("Creating {} post entries in collection with id: {}", requests.size(), collectionId);
+            BulkPostResultDTO result = postService.createPosts(collectionId, requests, ordered);
+            return ResponseEntity.ok(result);
+        } catch (NotFoundException e) {
+            LOGGER.error("Collection not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            LOGGER.error("Error creating posts: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @RequestMapping(value = "/collection/{collectionId}", method = RequestMethod.GET)
-    public ResponseEntity<List<Post>> getAllPostsForCollection(@PathVariable String collectionId) {
+    public ResponseEntity<?> getAllPostsForCollection(@PathVariable String collectionId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String fields) {
         try {
-            List<Post> posts = postService.findPostsByCollectionId(collectionId);
-            return ResponseEntity.ok(posts);
+            List<String> attributeNames = FieldSelection.parse(fields);
+            if (postService.isJsonPassthroughEnabled()) {
+                return ResponseEntity.ok(postService.findRawPostPageByCollectionId(collectionId, cursor, size, attributeNames));
+            }
+            PostPageDTO page = postService.findPostPageByCollectionId(collectionId, cursor, size, attributeNames);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid page request for collection: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             LOGGER.error("Error getting posts for collection: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @RequestMapping(value = "/{collectionId}/query", method = RequestMethod.POST)
+    public ResponseEntity<?> queryPosts(@PathVariable String collectionId, @RequestBody PostQueryRequest request) {
+        try {
+            return ResponseEntity.ok(postService.queryPosts(collectionId, request));
+        } catch (NotFoundException e) {
+            LOGGER.error("Collection not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid post query: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @RequestMapping(value = "/{collectionId}/search", method = RequestMethod.GET)
+    public ResponseEntity<?> searchPosts(@PathVariable String collectionId,
+                                         @RequestParam("q") String search,
+                                         @RequestParam(required = false) Integer page,
+                                         @RequestParam(required = false) Integer size,
+                                         @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(postService.searchPosts(collectionId, search, page, size, FieldSelection.parse(fields)));
+        } catch (NotFoundException e) {
+            LOGGER.error("Collection not found: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Invalid post search: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @RequestMapping(value = "/collection/{collectionId}", method = RequestMethod.GET, params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllPostsForCollection(@PathVariable String collectionId,
+                                                                             @RequestParam(required = false) String fields) {
+        return streamPosts(collectionId, fields);
+    }
+
+    @RequestMapping(value = "/collection/{collectionId}", method = RequestMethod.GET, produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPostsForCollectionNdjson(@PathVariable String collectionId,
+                                                                                   @RequestParam(required = false) String fields) {
+        return streamPosts(collectionId, fields);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamPosts(String collectionId, String fields) {
+        LOGGER.info("Streaming all post entries for collection with id: {}", collectionId);
+        // Parsed up front, an invalid field has to fail before the response is committed
+        List<String> attributeNames = FieldSelection.parse(fields);
+        StreamingResponseBody body = outputStream -> postService.streamPostsByCollectionId(collectionId, attributeNames, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+
     @RequestMapping(value = "{id}", method = RequestMethod.GET)
-    public PostDTO findById(@PathVariable("id") String id) {
+    public PostDTO findById(@PathVariable("id") String id, @RequestParam(required = false) String fields) {
         LOGGER.info("Finding post entry with id: {}", id);
-        Post post = postService.findPostFailIfNotFound(id);
+        Post post = postService.findPostFailIfNotFound(id, FieldSelection.parse(fields));
         return PostDTO.fromPost(post);
     }
 
@@ -79,6 +217,9 @@ public class PostController {
         } catch (NotFoundException e) {
             LOGGER.error("Post or Collection not found: {}", e.getMessage());
             return ResponseEntity.notFound().build();
+        } catch (ConflictException e) {
+            LOGGER.error("Conflicting post update: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             LOGGER.error("Error updating post: {}", e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -0,0 +1,42 @@
+package com.backend.cms.controller;
+
+import com.backend.cms.dto.SlowOperationDTO;
+import com.backend.cms.service.AuthService;
+import com.backend.cms.service.SlowOperationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = {"http://localhost:3000", "https://webease-frontend.vercel.app"})
+@RestController
+@RequestMapping("/api/v1/admin/slow-operations")
+public class SlowOperationController {
+
+    @Autowired
+    private SlowOperationService slowOperationService;
+
+    @Autowired
+    private AuthService authService;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowOperationController.class);
+
+    // MongoDB commands slower than mongo.slow-operations.threshold-ms, most recent first
+    @RequestMapping(method = RequestMethod.GET)
+    public List<SlowOperationDTO> findAll() {
+        LOGGER.info("Finding slow operations");
+        authService.checkIfUserIsAdminOrThrowException();
+        return slowOperationService.findSlowOperations();
+    }
+
+    @RequestMapping(value = "/{id}/explain", method = RequestMethod.GET)
+    public Map<String, Object> explain(@PathVariable long id,
+                                       @RequestParam(value = "verbosity", defaultValue = "queryPlanner") String verbosity) {
+        LOGGER.info("Explaining slow operation {} with verbosity {}", id, verbosity);
+        authService.checkIfUserIsAdminOrThrowException();
+        return slowOperationService.explain(id, verbosity);
+    }
+}
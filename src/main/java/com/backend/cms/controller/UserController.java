@@ -4,7 +4,6 @@ import com.backend.cms.dto.UserDTO;
 import com.backend.cms.exceptions.ConflictException;
 import com.backend.cms.model.AccountStatus;
 import com.backend.cms.model.User;
-import com.backend.cms.repository.UserRepository;
 import com.backend.cms.request.LoginRequest;
 import com.backend.cms.request.SetPasswordRequest;
 import com.backend.cms.request.UpdateUserRequest;
@@ -27,9 +26,6 @@ public class UserController {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @Autowired
     private AuthService authService;
 
@@ -58,7 +54,7 @@ public class UserController {
         LOGGER.info("Deleting user entry with id: {}", id);
         authService.checkIfUserIsAdminOrThrowException();
         User user = userService.findUserFailIfNotFound(id);
-        userRepository.delete(user);
+        userService.deleteUser(user);
         LOGGER.info("Deleted user entry with information: {}", user);
         return UserDTO.fromUser(user);
     }
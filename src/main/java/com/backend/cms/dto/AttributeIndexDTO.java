@@ -0,0 +1,22 @@
+package com.backend.cms.dto;
+
+import com.backend.cms.model.IndexState;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AttributeIndexDTO {
+
+    private String attribute;
+    private String index;
+    private IndexState state;
+
+    // Percentage of the documents scanned, only known while the index is building
+    private Integer progress;
+    private String error;
+}
@@ -0,0 +1,34 @@
+package com.backend.cms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPostResultDTO {
+
+    public enum Status {
+        CREATED, FAILED, SKIPPED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        // Position of the post in the request
+        private int index;
+        private String id;
+        private Status status;
+        private String error;
+    }
+
+    private int created;
+    private int failed;
+    private int skipped;
+    private List<ItemResult> results = new ArrayList<>();
+}
@@ -2,6 +2,7 @@ package com.backend.cms.dto;
 
 import com.backend.cms.model.Attribute;
 import com.backend.cms.model.Collection;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -19,6 +20,10 @@ public class CollectionDTO {
 
     private List<Attribute> attributes = new ArrayList<>();
 
+    // Only filled in by the schema endpoints
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<AttributeIndexDTO> indexes;
+
     public CollectionDTO(Collection collection) {
         this.id = collection.getCollectionId();
         this.name = collection.getName();
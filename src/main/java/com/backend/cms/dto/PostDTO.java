@@ -19,11 +19,14 @@ public class PostDTO {
 
     private Map<String, Object> attributes;
 
+    private Long version;
+
     public PostDTO(Post post) {
         this.id = post.getPostId();
         this.collectionId = post.getCollectionId();
         this.userId = post.getUserId();
         this.attributes = post.getAttributes();
+        this.version = post.getVersion();
     }
 
     public static PostDTO fromPost(Post post) {
@@ -0,0 +1,19 @@
+package com.backend.cms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPageDTO {
+
+    private List<PostDTO> posts = new ArrayList<>();
+
+    // Opaque cursor for the next page, null when the last page was reached
+    private String nextCursor;
+}
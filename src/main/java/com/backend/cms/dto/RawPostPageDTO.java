@@ -0,0 +1,47 @@
+package com.backend.cms.dto;
+
+import com.backend.cms.codec.PostJsonWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import lombok.Getter;
+import org.bson.RawBsonDocument;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BiFunction;
+
+// PostPageDTO whose posts are still the BSON read from Mongo, serialized to the same JSON by PostJsonWriter
+@Getter
+public class RawPostPageDTO implements JsonSerializable {
+
+    private final List<RawBsonDocument> posts;
+
+    private final String nextCursor;
+
+    private final BiFunction<String, Object, Object> outputValue;
+
+    public RawPostPageDTO(List<RawBsonDocument> posts, String nextCursor, BiFunction<String, Object, Object> outputValue) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+        this.outputValue = outputValue;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("posts");
+        for (RawBsonDocument post : posts) {
+            PostJsonWriter.write(post, generator, outputValue);
+        }
+        generator.writeEndArray();
+        generator.writeStringField("nextCursor", nextCursor);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, serializers);
+    }
+}
@@ -0,0 +1,22 @@
+package com.backend.cms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+
+    private PostDTO post;
+
+    // Relevance computed by the text index, higher is more relevant
+    private Float score;
+
+    // Snippet with the matching words wrapped in <em>, by attribute name
+    private Map<String, String> highlights = new LinkedHashMap<>();
+}
@@ -0,0 +1,19 @@
+package com.backend.cms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPageDTO {
+
+    private List<SearchHitDTO> hits = new ArrayList<>();
+
+    // Number of the next page, null when the last page was reached
+    private Integer nextPage;
+}
@@ -0,0 +1,34 @@
+package com.backend.cms.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SlowOperationDTO {
+
+    private long id;
+    private Date startedAt;
+    private String database;
+    private String collection;
+    private String command;
+
+    // Filter, sort, projection or pipeline of the command with every value replaced by "?"
+    private Map<String, Object> shape;
+
+    private double durationMillis;
+
+    // Documents in the returned batch, or matched by a count, update or delete
+    private Long documents;
+    private boolean failed;
+
+    // Whether GET /api/v1/admin/slow-operations/{id}/explain can show the query plan
+    private boolean explainable;
+}
@@ -0,0 +1,80 @@
+package com.backend.cms.metrics;
+
+import com.backend.cms.service.CollectionInvalidationListener;
+import com.backend.cms.service.MailOutboxWorker;
+import com.backend.cms.service.PasswordHashingExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Gauges and counters of the background workers and pools, read from their counters on every scrape.
+// The components are lazy, binding happens while the registry is created and they need the MongoClient,
+// which in turn needs the registry.
+@Component
+public class ComponentMetrics implements MeterBinder {
+
+    @Lazy
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Lazy
+    @Autowired
+    private MailOutboxWorker mailOutboxWorker;
+
+    @Lazy
+    @Autowired
+    private CollectionInvalidationListener collectionInvalidationListener;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cms.auth.hashing.queue", passwordHashingExecutor, PasswordHashingExecutor::getQueueDepth)
+                .description("Logins waiting for a password hashing thread")
+                .register(registry);
+        Gauge.builder("cms.auth.hashing.active", passwordHashingExecutor, PasswordHashingExecutor::getActiveCount)
+                .register(registry);
+        FunctionCounter.builder("cms.auth.hashing.count", passwordHashingExecutor, PasswordHashingExecutor::getHashCount)
+                .register(registry);
+        FunctionCounter.builder("cms.auth.hashing.seconds", passwordHashingExecutor,
+                        executor -> executor.getTotalHashNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("cms.auth.hashing.max", passwordHashingExecutor,
+                        executor -> executor.getMaxHashNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("cms.auth.hashing.rejected", passwordHashingExecutor, PasswordHashingExecutor::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("cms.auth.hashing.timeouts", passwordHashingExecutor, PasswordHashingExecutor::getTimedOutCount)
+                .description("Logins that stopped waiting for a hash that was already running")
+                .register(registry);
+
+        Gauge.builder("cms.mail.outbox.queue", mailOutboxWorker, MailOutboxWorker::getQueueDepth)
+                .description("Mails not sent yet")
+                .register(registry);
+        FunctionCounter.builder("cms.mail.outbox.sent", mailOutboxWorker, MailOutboxWorker::getSentCount)
+                .register(registry);
+        FunctionCounter.builder("cms.mail.outbox.retried", mailOutboxWorker, MailOutboxWorker::getRetryCount)
+                .register(registry);
+        FunctionCounter.builder("cms.mail.outbox.failed", mailOutboxWorker, MailOutboxWorker::getFailedCount)
+                .register(registry);
+
+        FunctionCounter.builder("cms.collections.invalidations", collectionInvalidationListener,
+                        CollectionInvalidationListener::getInvalidationCount)
+                .register(registry);
+        Gauge.builder("cms.collections.invalidation.lag", collectionInvalidationListener,
+                        listener -> listener.getLastLagMillis() / 1000.0)
+                .description("Time between a collection change and its invalidation on this node")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("cms.collections.invalidation.lag.max", collectionInvalidationListener,
+                        listener -> listener.getMaxLagMillis() / 1000.0)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
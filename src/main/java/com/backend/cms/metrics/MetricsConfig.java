@@ -0,0 +1,27 @@
+package com.backend.cms.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Autowired
+    private MongoCommandMetrics mongoCommandMetrics;
+
+    @Autowired
+    private SlowOperationRecorder slowOperationRecorder;
+
+    // Replaces the command listener of Spring Boot, which does not tag commands by collection
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer() {
+        return settings -> settings.addCommandListener(mongoCommandMetrics);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowOperationRecorderCustomizer() {
+        return settings -> settings.addCommandListener(slowOperationRecorder);
+    }
+}
@@ -0,0 +1,65 @@
+package com.backend.cms.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Times every MongoDB command as cms.mongodb.commands, tagged with the command, the collection it ran
+// on and whether it succeeded. The driver reports the elapsed time, only the collection of a command
+// is kept from its start until it completes.
+@Component
+public class MongoCommandMetrics implements CommandListener {
+
+    static final String METRIC_NAME = "cms.mongodb.commands";
+
+    // Lazy, so creating the MongoClient does not depend on creating the registry
+    @Lazy
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Collection of the commands in flight by request id
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getRequestId(), event.getCommandName(), "failed", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(int requestId, String command, String status, long nanos) {
+        String collection = collections.remove(requestId);
+        Timer.builder(METRIC_NAME)
+                .tag("command", command)
+                .tag("collection", collection != null ? collection : "none")
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Collection commands name the collection as the value of the command, a getMore in its collection field
+    static String collectionOf(String command, BsonDocument document) {
+        BsonValue value = document.get("getMore".equals(command) ? "collection" : command);
+        return value != null && value.isString() ? value.asString().getValue() : "none";
+    }
+}
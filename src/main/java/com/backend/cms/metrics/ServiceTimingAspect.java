@@ -0,0 +1,43 @@
+package com.backend.cms.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Times every public operation of the post and collection services as cms.service, tagged with the
+// service, the method and the exception it failed with. Calls within a service are not timed again.
+@Aspect
+@Component
+public class ServiceTimingAspect {
+
+    static final String METRIC_NAME = "cms.service";
+
+    // Lazy, aspects are created before the registry
+    @Lazy
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.backend.cms.service.PostService.*(..))"
+            + " || execution(public * com.backend.cms.service.CollectionService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
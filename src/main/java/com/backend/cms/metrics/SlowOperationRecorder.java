@@ -0,0 +1,305 @@
+package com.backend.cms.metrics;
+
+import com.backend.cms.dto.SlowOperationDTO;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the last slow MongoDB commands in a ring buffer and logs them. The query part of every command is
+// copied when it starts, since the driver reuses the command buffer, and only turned into a shape with
+// the values redacted when the command turns out to be slow. The copy with the values is kept to run
+// explain on demand, it is never returned or logged.
+@Component
+public class SlowOperationRecorder implements CommandListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowOperationRecorder.class);
+
+    private static final String REDACTED = "?";
+
+    // Connection handshakes, authentication and our own explains are never recorded
+    private static final Set<String> IGNORED_COMMANDS = Set.of(
+            "hello", "isMaster", "ismaster", "ping", "buildInfo", "saslStart", "saslContinue", "authenticate",
+            "getnonce", "endSessions", "killCursors", "explain");
+
+    // Keys kept as they are, a sort or projection holds no values
+    private static final Set<String> KEPT_KEYS = Set.of("sort", "projection", "$sort", "$project", "$limit", "$skip");
+
+    // Parts of an explain output holding the values of the query, pipeline stages other than $cursor too
+    private static final Set<String> EXPLAIN_QUERY_KEYS = Set.of("command", "parsedQuery", "filter");
+
+    // Index bounds telling which fields of the index are scanned whole, kept in a redacted explain output
+    private static final Set<String> FULL_RANGE_BOUNDS = Set.of("[MinKey, MaxKey]", "[MaxKey, MinKey]");
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final int capacity;
+
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+    private final Deque<SlowOperation> operations = new ArrayDeque<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    @Autowired
+    public SlowOperationRecorder(@Value("${mongo.slow-operations.enabled:true}") boolean enabled,
+                                 @Value("${mongo.slow-operations.threshold-ms:100}") long thresholdMillis,
+                                 @Value("${mongo.slow-operations.capacity:100}") int capacity) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled || IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        startedCommands.put(event.getRequestId(), StartedCommand.of(event));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = startedCommands.remove(event.getRequestId());
+        if (started != null && event.getElapsedTime(TimeUnit.NANOSECONDS) >= thresholdNanos) {
+            record(started, event.getElapsedTime(TimeUnit.NANOSECONDS), documentsOf(event.getResponse()), false);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = startedCommands.remove(event.getRequestId());
+        if (started != null && event.getElapsedTime(TimeUnit.NANOSECONDS) >= thresholdNanos) {
+            record(started, event.getElapsedTime(TimeUnit.NANOSECONDS), null, true);
+        }
+    }
+
+    // Most recent first
+    public List<SlowOperation> getOperations() {
+        synchronized (operations) {
+            return new ArrayList<>(operations);
+        }
+    }
+
+    public SlowOperation findOperation(long id) {
+        synchronized (operations) {
+            for (SlowOperation operation : operations) {
+                if (operation.operation().getId() == id) {
+                    return operation;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void record(StartedCommand started, long nanos, Long documents, boolean failed) {
+        BsonDocument explainCommand = started.explainCommand();
+        SlowOperationDTO operation = new SlowOperationDTO(nextId.incrementAndGet(), started.startedAt(), started.database(),
+                started.collection(), started.command(), shapeOf(started.query()), nanos / 1_000_000.0, documents, failed,
+                explainCommand != null);
+        LOGGER.warn("Slow MongoDB {} on {} took {} ms: {}", operation.getCommand(), operation.getCollection(),
+                Math.round(operation.getDurationMillis()), operation.getShape());
+
+        synchronized (operations) {
+            operations.addFirst(new SlowOperation(operation, started.database(), explainCommand));
+            while (operations.size() > capacity) {
+                operations.removeLast();
+            }
+        }
+    }
+
+    // Documents in a cursor batch, or the n of a count, update or delete
+    private static Long documentsOf(BsonDocument response) {
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray batch = cursor.getArray(cursor.containsKey("firstBatch") ? "firstBatch" : "nextBatch", null);
+            return batch != null ? (long) batch.size() : null;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : null;
+    }
+
+    static Map<String, Object> shapeOf(BsonDocument query) {
+        Map<String, Object> shape = new LinkedHashMap<>();
+        for (Map.Entry<String, BsonValue> entry : query.entrySet()) {
+            shape.put(entry.getKey(), KEPT_KEYS.contains(entry.getKey()) ? keep(entry.getValue()) : redact(entry.getValue()));
+        }
+        return shape;
+    }
+
+    // Operators and field names stay, values become "?". Arrays of documents ($and, $or, pipelines) keep
+    // every element, other arrays ($in) are a single value.
+    private static Object redact(BsonValue value) {
+        if (value.isDocument()) {
+            return shapeOf(value.asDocument());
+        }
+        if (value.isArray() && !value.asArray().isEmpty() && value.asArray().stream().allMatch(BsonValue::isDocument)) {
+            List<Object> elements = new ArrayList<>();
+            for (BsonValue element : value.asArray()) {
+                elements.add(shapeOf(element.asDocument()));
+            }
+            return elements;
+        }
+        return REDACTED;
+    }
+
+    // An explain output with the shape of the query in place of its values: the explained command, the
+    // parsed query, the filters of the plan stages and the index bounds, apart from the unbounded ones
+    public static Map<String, Object> redactExplain(BsonDocument explain) {
+        Map<String, Object> redacted = new LinkedHashMap<>();
+        for (Map.Entry<String, BsonValue> entry : explain.entrySet()) {
+            redacted.put(entry.getKey(), redactExplain(entry.getKey(), entry.getValue()));
+        }
+        return redacted;
+    }
+
+    private static Object redactExplain(String key, BsonValue value) {
+        if (key.equals("indexBounds") && value.isDocument()) {
+            Map<String, Object> bounds = new LinkedHashMap<>();
+            value.asDocument().forEach((field, fieldBounds) -> bounds.put(field, redactBounds(fieldBounds)));
+            return bounds;
+        }
+        if (EXPLAIN_QUERY_KEYS.contains(key) || key.startsWith("$") && !key.equals("$cursor")) {
+            return KEPT_KEYS.contains(key) ? keep(value) : redact(value);
+        }
+        if (value.isDocument()) {
+            return redactExplain(value.asDocument());
+        }
+        if (value.isArray()) {
+            List<Object> elements = new ArrayList<>();
+            for (BsonValue element : value.asArray()) {
+                elements.add(redactExplain("", element));
+            }
+            return elements;
+        }
+        if (value.isDouble()) {
+            return value.asDouble().getValue();
+        }
+        if (value.isNumber()) {
+            return value.asNumber().longValue();
+        }
+        if (value.isBoolean()) {
+            return value.asBoolean().getValue();
+        }
+        return value.isString() ? value.asString().getValue() : value.isNull() ? null : REDACTED;
+    }
+
+    private static Object redactBounds(BsonValue fieldBounds) {
+        if (!fieldBounds.isArray()) {
+            return REDACTED;
+        }
+        List<Object> bounds = new ArrayList<>();
+        for (BsonValue bound : fieldBounds.asArray()) {
+            bounds.add(bound.isString() && FULL_RANGE_BOUNDS.contains(bound.asString().getValue()) ? bound.asString().getValue() : REDACTED);
+        }
+        return bounds;
+    }
+
+    private static Object keep(BsonValue value) {
+        if (value.isDocument()) {
+            Map<String, Object> kept = new LinkedHashMap<>();
+            value.asDocument().forEach((key, field) -> kept.put(key, keep(field)));
+            return kept;
+        }
+        if (value.isNumber()) {
+            return value.asNumber().longValue();
+        }
+        return value.isString() ? value.asString().getValue() : REDACTED;
+    }
+
+    // A recorded operation together with the command to explain it
+    public record SlowOperation(SlowOperationDTO operation, String database, BsonDocument explainCommand) {
+    }
+
+    // The query part of a started command: filter, sort and projection, a count or distinct query, the
+    // query of the first update or delete statement, or an aggregation pipeline
+    private record StartedCommand(Date startedAt, String database, String command, String collection, BsonDocument query) {
+
+        private static final Set<String> EXPLAINED_AS_FIND = Set.of("find", "count", "distinct", "findAndModify", "update", "delete");
+
+        private static StartedCommand of(CommandStartedEvent event) {
+            String command = event.getCommandName();
+            BsonDocument document = event.getCommand();
+            BsonDocument query = new BsonDocument();
+            String collection = MongoCommandMetrics.collectionOf(command, document);
+            switch (command) {
+                case "find":
+                    copy(document, query, "filter", "filter");
+                    copy(document, query, "sort", "sort");
+                    copy(document, query, "projection", "projection");
+                    break;
+                case "count":
+                case "distinct":
+                    copy(document, query, "query", "filter");
+                    break;
+                case "findAndModify":
+                    copy(document, query, "query", "filter");
+                    copy(document, query, "sort", "sort");
+                    break;
+                case "update":
+                case "delete":
+                    BsonArray statements = document.getArray(command.equals("update") ? "updates" : "deletes", new BsonArray());
+                    if (!statements.isEmpty() && statements.get(0).isDocument()) {
+                        copy(statements.get(0).asDocument(), query, "q", "filter");
+                    }
+                    break;
+                case "aggregate":
+                    copy(document, query, "pipeline", "pipeline");
+                    break;
+                default:
+                    break;
+            }
+            return new StartedCommand(new Date(), event.getDatabaseName(), command, collection, query);
+        }
+
+        private static void copy(BsonDocument from, BsonDocument to, String fromKey, String toKey) {
+            BsonValue value = from.get(fromKey);
+            if (value != null) {
+                to.put(toKey, value.isDocument() ? value.asDocument().clone() : value.isArray() ? value.asArray().clone() : value);
+            }
+        }
+
+        // Reads are explained as a find or an aggregation of the same collection, so explaining a slow
+        // update or delete never writes. Pipelines writing their output are not explained.
+        private BsonDocument explainCommand() {
+            if ("none".equals(collection)) {
+                return null;
+            }
+            if (query.containsKey("pipeline")) {
+                for (BsonValue stage : query.getArray("pipeline")) {
+                    if (stage.isDocument() && (stage.asDocument().containsKey("$out") || stage.asDocument().containsKey("$merge"))) {
+                        return null;
+                    }
+                }
+                return new BsonDocument("aggregate", new BsonString(collection))
+                        .append("pipeline", query.getArray("pipeline"))
+                        .append("cursor", new BsonDocument());
+            }
+            if (!EXPLAINED_AS_FIND.contains(command)) {
+                return null;
+            }
+            BsonDocument find = new BsonDocument("find", new BsonString(collection));
+            query.forEach(find::append);
+            return find;
+        }
+    }
+}
@@ -16,4 +16,15 @@ public class Attribute {
     private String name;
     private ContentType contentType;
     private boolean required;
+
+    // Posts can be filtered or sorted by the attribute, both are served by an attribute index
+    private boolean filterable;
+    private boolean sortable;
+
+    public Attribute(String attributeId, String name, ContentType contentType, boolean required) {
+        this.attributeId = attributeId;
+        this.name = name;
+        this.contentType = contentType;
+        this.required = required;
+    }
 }
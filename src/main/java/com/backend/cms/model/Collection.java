@@ -10,6 +10,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Entity
@@ -30,6 +31,9 @@ public class Collection {
     private String userId;
     private List<Attribute> attributes = new ArrayList<>();
 
+    // Set on every write, used by other nodes to notice schema changes, see CollectionInvalidationListener
+    private Date lastModified;
+
     public Collection(String name, String description) {
         this.name = name;
         this.description = description;
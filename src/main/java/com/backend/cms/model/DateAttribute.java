@@ -4,10 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.format.DateTimeParseException;
 
 @Data
 @NoArgsConstructor
@@ -24,33 +21,19 @@ public class DateAttribute extends Attribute {
         this.unique = unique;
     }
 
-   public void setDefaultValue(String defaultValue, DateType dateType) {
-    if (defaultValue == null || defaultValue.isEmpty()) {
-        this.defaultValue = defaultValue;
-        return;
-    }
-
-    try {
-        DateFormat dateFormat;
-
-        switch (dateType) {
-            case DATE:
-                dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                break;
-            case DATETIME:
-                dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm");
-                break;
-            case TIME:
-                dateFormat = new SimpleDateFormat("HH:mm");
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid DateType specified");
+    public void setDefaultValue(String defaultValue, DateType dateType) {
+        if (defaultValue == null || defaultValue.isEmpty()) {
+            this.defaultValue = defaultValue;
+            return;
+        }
+        if (dateType == null) {
+            throw new IllegalArgumentException("Invalid DateType specified");
         }
 
-        Date parsedDate = dateFormat.parse(defaultValue);
-        this.defaultValue = dateFormat.format(parsedDate);
-    } catch (ParseException e) {
-        throw new IllegalArgumentException("Invalid date format for defaultValue");
+        try {
+            this.defaultValue = dateType.format(dateType.parse(defaultValue));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date format for defaultValue");
+        }
     }
 }
-}
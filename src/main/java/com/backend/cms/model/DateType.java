@@ -1,5 +1,37 @@
 package com.backend.cms.model;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.Date;
+
+// Values are stored as BSON dates in UTC, TIME values on 1970-01-01, so they compare and sort chronologically.
+// The formatters are immutable and thread-safe, so one is shared per type.
 public enum DateType {
-    DATE, DATETIME, TIME
+    DATE("uuuu-MM-dd"), DATETIME("uuuu-MM-dd'T'HH:mm"), TIME("HH:mm");
+
+    private final DateTimeFormatter formatter;
+
+    DateType(String pattern) {
+        this.formatter = DateTimeFormatter.ofPattern(pattern).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    // Throws a DateTimeParseException when the text does not match the format of the type
+    public Date parse(String text) {
+        switch (this) {
+            case DATETIME:
+                return Date.from(LocalDateTime.parse(text, formatter).toInstant(ZoneOffset.UTC));
+            case TIME:
+                return Date.from(LocalTime.parse(text, formatter).atDate(LocalDate.EPOCH).toInstant(ZoneOffset.UTC));
+            default:
+                return Date.from(LocalDate.parse(text, formatter).atStartOfDay(ZoneOffset.UTC).toInstant());
+        }
+    }
+
+    public String format(Date date) {
+        return formatter.format(date.toInstant().atOffset(ZoneOffset.UTC));
+    }
 }
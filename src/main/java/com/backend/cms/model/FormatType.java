@@ -1,5 +1,51 @@
 package com.backend.cms.model;
 
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+
 public enum FormatType {
-    INTEGER, BIGINTEGER, DECIMAL, FLOAT
+    INTEGER, BIGINTEGER, DECIMAL, FLOAT;
+
+    // Converts a number, or its text, to the type it is stored with: integers as int64, floats as double and
+    // decimals as decimal128, so Mongo compares them numerically. Without a format type whole numbers are
+    // stored as integers and the rest as doubles.
+    // Throws a NumberFormatException for non-numbers and an ArithmeticException for integers out of range.
+    public static Object toStoredValue(FormatType formatType, Object value) {
+        BigDecimal number = toBigDecimal(value);
+        if (formatType == null) {
+            return isWholeNumber(number) && number.abs().compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+                    ? (Object) number.longValueExact()
+                    : (Object) number.doubleValue();
+        }
+        switch (formatType) {
+            case INTEGER:
+            case BIGINTEGER:
+                return number.longValueExact();
+            case DECIMAL:
+                return new Decimal128(number);
+            default:
+                return number.doubleValue();
+        }
+    }
+
+    public static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Decimal128 decimal128) {
+            return decimal128.bigDecimalValue();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    public static boolean isWholeNumber(BigDecimal number) {
+        return number.signum() == 0 || number.stripTrailingZeros().scale() <= 0;
+    }
 }
@@ -0,0 +1,5 @@
+package com.backend.cms.model;
+
+public enum IndexState {
+    PENDING, BUILDING, READY, FAILED
+}
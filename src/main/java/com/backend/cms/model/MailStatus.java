@@ -0,0 +1,5 @@
+package com.backend.cms.model;
+
+public enum MailStatus {
+    PENDING, SENDING, SENT, FAILED
+}
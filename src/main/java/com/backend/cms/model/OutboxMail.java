@@ -0,0 +1,39 @@
+package com.backend.cms.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// A mail waiting in the outbox, written in the request and sent later by the MailOutboxWorker
+@Document(collection = "mail-outbox")
+@Data
+@NoArgsConstructor
+public class OutboxMail {
+
+    @Id
+    private ObjectId _id;
+    private String recipient;
+    private String subject;
+    private String text;
+    private MailStatus status;
+    private int attempts;
+    private Date createdAt;
+    private Date nextAttemptAt;
+    // A worker claiming the mail owns it until then, after a crash another worker picks it up again
+    private Date lockedUntil;
+    private Date sentAt;
+    private String lastError;
+
+    public OutboxMail(String recipient, String subject, String text) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.text = text;
+        this.status = MailStatus.PENDING;
+        this.createdAt = new Date();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -8,7 +8,9 @@ import org.mongodb.morphia.annotations.Entity;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
+import java.util.List;
 import java.util.Map;
 
 @Entity
@@ -31,5 +33,18 @@ public class Post {
 
     private Map<String, Object> attributes;
 
+    // Normalized values of unique attributes, see PostUniquenessIndex
+    private List<String> uniqueKeys;
+
+    // Plain text of every TEXT and RICHTEXT attribute for the full-text index, see PostSearchIndex
+    private List<String> searchText;
+
+    // Relevance of the post in a full-text search, never stored
+    @TextScore
+    private Float score;
+
+    // Incremented on every update, used for optimistic concurrency on PATCH
+    private Long version;
+
 }
 
@@ -0,0 +1,22 @@
+package com.backend.cms.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// Tokens of the user issued up to revokedAt are rejected, the entry is removed by a TTL index at expiresAt
+@Document(collection = "token-revocation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    private String userId;
+    private Date revokedAt;
+    private Date expiresAt;
+}
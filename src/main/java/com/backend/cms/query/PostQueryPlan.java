@@ -0,0 +1,282 @@
+package com.backend.cms.query;
+
+import com.backend.cms.model.*;
+import com.backend.cms.request.PostQueryRequest;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Immutable plan for one query shape: which attributes are filtered with which operators and which
+// attribute is sorted on, resolved against the collection schema. Operands are checked and converted
+// to the stored type of their attribute, so NUMBER compares as numbers and DATE as BSON dates.
+// Plans are cached per shape, binding a request to a plan only converts its operand values.
+public final class PostQueryPlan {
+
+    private static final int MAX_IN_VALUES = 1000;
+
+    @FunctionalInterface
+    private interface OperandConverter {
+        Object convert(Object value);
+    }
+
+    @FunctionalInterface
+    private interface FilterCompiler {
+        Criteria compile(PostQueryRequest.Filter filter);
+    }
+
+    private static final Comparator<PostQueryRequest.Filter> FILTER_ORDER =
+            Comparator.comparing(PostQueryRequest.Filter::getAttribute).thenComparing(PostQueryRequest.Filter::getOp);
+
+    private final FilterCompiler[] filterCompilers;
+    private final String sortAttribute;
+    private final Sort.Direction sortDirection;
+    private final OperandConverter sortConverter;
+
+    private PostQueryPlan(FilterCompiler[] filterCompilers, String sortAttribute, Sort.Direction sortDirection, OperandConverter sortConverter) {
+        this.filterCompilers = filterCompilers;
+        this.sortAttribute = sortAttribute;
+        this.sortDirection = sortDirection;
+        this.sortConverter = sortConverter;
+    }
+
+    // Filters in the order the plan expects them, so the same filters in any order share one plan
+    public static List<PostQueryRequest.Filter> normalize(List<PostQueryRequest.Filter> filters) {
+        if (filters == null) {
+            return List.of();
+        }
+        for (PostQueryRequest.Filter filter : filters) {
+            if (filter == null || filter.getAttribute() == null || filter.getOp() == null) {
+                throw new IllegalArgumentException("Every filter needs an attribute and an op");
+            }
+        }
+        return filters.stream().sorted(FILTER_ORDER).collect(Collectors.toList());
+    }
+
+    // Identifies the plan of a query: attributes, operators, range bounds used and sort, without operand values
+    public static String shapeOf(List<PostQueryRequest.Filter> normalizedFilters, PostQueryRequest.SortOrder sort) {
+        StringBuilder shape = new StringBuilder();
+        for (PostQueryRequest.Filter filter : normalizedFilters) {
+            shape.append(filter.getAttribute()).append(':').append(filter.getOp());
+            if (filter.getOp() == PostQueryRequest.Operator.RANGE) {
+                shape.append(filter.getGt() != null ? "g" : "")
+                        .append(filter.getGte() != null ? "G" : "")
+                        .append(filter.getLt() != null ? "l" : "")
+                        .append(filter.getLte() != null ? "L" : "");
+            }
+            shape.append('|');
+        }
+        if (sort != null && sort.getAttribute() != null) {
+            shape.append("sort:").append(sort.getAttribute()).append(':').append(sort.getDirection());
+        }
+        return shape.toString();
+    }
+
+    public static PostQueryPlan compile(List<Attribute> attributes, List<PostQueryRequest.Filter> normalizedFilters, PostQueryRequest.SortOrder sort) {
+        Map<String, Attribute> attributesByName = new HashMap<>();
+        for (Attribute attribute : attributes) {
+            attributesByName.put(attribute.getName(), attribute);
+        }
+
+        FilterCompiler[] filterCompilers = new FilterCompiler[normalizedFilters.size()];
+        for (int i = 0; i < filterCompilers.length; i++) {
+            PostQueryRequest.Filter filter = normalizedFilters.get(i);
+            filterCompilers[i] = compileFilter(findAttribute(attributesByName, filter.getAttribute()), filter.getOp());
+        }
+
+        if (sort == null || sort.getAttribute() == null) {
+            return new PostQueryPlan(filterCompilers, null, Sort.Direction.ASC, null);
+        }
+        Attribute sortAttribute = findAttribute(attributesByName, sort.getAttribute());
+        if (sortAttribute.getContentType() == ContentType.MEDIA || sortAttribute.getContentType() == ContentType.RICHTEXT) {
+            throw new IllegalArgumentException("Posts cannot be sorted on attribute '" + sortAttribute.getName() + "'");
+        }
+        Sort.Direction direction = sort.getDirection() == PostQueryRequest.Direction.DESC ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return new PostQueryPlan(filterCompilers, sortAttribute.getName(), direction, cursorValueConverter(sortAttribute));
+    }
+
+    private static Attribute findAttribute(Map<String, Attribute> attributesByName, String name) {
+        Attribute attribute = attributesByName.get(name);
+        if (attribute == null) {
+            throw new IllegalArgumentException("Attribute '" + name + "' does not exist in the collection.");
+        }
+        return attribute;
+    }
+
+    private static FilterCompiler compileFilter(Attribute attribute, PostQueryRequest.Operator op) {
+        String path = "attributes." + attribute.getName();
+        String name = attribute.getName();
+        ContentType contentType = attribute.getContentType();
+        OperandConverter converter = operandConverter(attribute);
+
+        switch (op) {
+            case EQ:
+                return filter -> Criteria.where(path).is(converter.convert(required(filter.getValue(), name)));
+            case IN:
+                return filter -> {
+                    List<Object> values = filter.getValues();
+                    if (values == null || values.isEmpty() || values.size() > MAX_IN_VALUES) {
+                        throw new IllegalArgumentException("Filter 'in' on attribute '" + name + "' needs 1 to " + MAX_IN_VALUES + " values");
+                    }
+                    List<Object> converted = new ArrayList<>(values.size());
+                    for (Object value : values) {
+                        converted.add(converter.convert(required(value, name)));
+                    }
+                    return Criteria.where(path).in(converted);
+                };
+            case PREFIX:
+                if (contentType != ContentType.TEXT && contentType != ContentType.RICHTEXT) {
+                    throw new IllegalArgumentException("Filter 'prefix' is not supported for attribute '" + name + "'");
+                }
+                // An anchored regex without special characters can use an index on the attribute
+                return filter -> Criteria.where(path).regex("^" + escapeRegex(required(filter.getValue(), name).toString()));
+            case RANGE:
+                if (contentType != ContentType.TEXT && contentType != ContentType.NUMBER && contentType != ContentType.DATE) {
+                    throw new IllegalArgumentException("Filter 'range' is not supported for attribute '" + name + "'");
+                }
+                return filter -> {
+                    if (filter.getGt() == null && filter.getGte() == null && filter.getLt() == null && filter.getLte() == null) {
+                        throw new IllegalArgumentException("Filter 'range' on attribute '" + name + "' needs at least one bound");
+                    }
+                    Criteria criteria = Criteria.where(path);
+                    if (filter.getGt() != null) criteria.gt(converter.convert(filter.getGt()));
+                    if (filter.getGte() != null) criteria.gte(converter.convert(filter.getGte()));
+                    if (filter.getLt() != null) criteria.lt(converter.convert(filter.getLt()));
+                    if (filter.getLte() != null) criteria.lte(converter.convert(filter.getLte()));
+                    return criteria;
+                };
+            default:
+                throw new IllegalArgumentException("Unsupported filter '" + op + "'");
+        }
+    }
+
+    private static Object required(Object value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("Filter on attribute '" + name + "' needs a value");
+        }
+        return value;
+    }
+
+    // Converts an operand to the type the attribute is stored with
+    private static OperandConverter operandConverter(Attribute attribute) {
+        String name = attribute.getName();
+        if (attribute instanceof NumberAttribute numberAttribute) {
+            // Mongo compares numbers across types, only decimals keep their own type to stay exact
+            FormatType formatType = numberAttribute.getFormatType() == FormatType.DECIMAL ? FormatType.DECIMAL : null;
+            return value -> {
+                try {
+                    return FormatType.toStoredValue(formatType, value);
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new IllegalArgumentException("Filter on attribute '" + name + "' needs a number");
+                }
+            };
+        }
+        if (attribute instanceof DateAttribute dateAttribute && dateAttribute.getDateType() != null) {
+            DateType dateType = dateAttribute.getDateType();
+            return value -> {
+                try {
+                    return dateType.parse(value.toString());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Filter on attribute '" + name + "' must be a valid format.");
+                }
+            };
+        }
+        return Object::toString;
+    }
+
+    // Sort values in a page cursor are JSON, dates are carried as epoch milliseconds
+    private static OperandConverter cursorValueConverter(Attribute attribute) {
+        OperandConverter converter = operandConverter(attribute);
+        if (attribute instanceof DateAttribute) {
+            return value -> value instanceof Number millis ? new Date(millis.longValue()) : converter.convert(value);
+        }
+        return converter;
+    }
+
+    private static String escapeRegex(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char character : text.toCharArray()) {
+            if (!Character.isLetterOrDigit(character) && character != ' ') {
+                escaped.append('\\');
+            }
+            escaped.append(character);
+        }
+        return escaped.toString();
+    }
+
+    public boolean isSorted() {
+        return sortAttribute != null;
+    }
+
+    public String getSortAttribute() {
+        return sortAttribute;
+    }
+
+    // Sort value of the post as it is carried in a page cursor
+    public Object sortValueOf(Post post) {
+        Object value = post.getAttributes() != null ? post.getAttributes().get(sortAttribute) : null;
+        if (value instanceof Date date) {
+            return date.getTime();
+        }
+        if (value instanceof Decimal128 decimal128) {
+            // As text, a JSON number would be read back as a double
+            return decimal128.bigDecimalValue().toString();
+        }
+        return value;
+    }
+
+    // Builds the page query for the filters, continuing after the last post of the previous page when set
+    public Query toQuery(String collectionId, List<PostQueryRequest.Filter> normalizedFilters,
+                         ObjectId lastId, Object lastSortValue, int limit) {
+        List<Criteria> conditions = new ArrayList<>();
+        for (int i = 0; i < filterCompilers.length; i++) {
+            conditions.add(filterCompilers[i].compile(normalizedFilters.get(i)));
+        }
+        if (lastId != null) {
+            conditions.add(isSorted() ? afterSortKey(lastSortValue, lastId) : Criteria.where("_id").gt(lastId));
+        }
+
+        Criteria criteria = Criteria.where("collectionId").is(collectionId);
+        if (!conditions.isEmpty()) {
+            criteria.andOperator(conditions.toArray(new Criteria[0]));
+        }
+
+        Query query = new Query(criteria).limit(limit);
+        if (isSorted()) {
+            // Ties are broken on _id in the same direction, so one {collectionId, attribute, _id} index serves both
+            query.with(Sort.by(sortDirection, "attributes." + sortAttribute, "_id"));
+        } else {
+            query.with(Sort.by(Sort.Direction.ASC, "_id"));
+        }
+        return query;
+    }
+
+    // Keyset condition for (sort value, _id). Missing values sort first ascending and last descending.
+    private Criteria afterSortKey(Object lastSortValue, ObjectId lastId) {
+        String path = "attributes." + sortAttribute;
+        Criteria afterId = sortDirection == Sort.Direction.ASC ? Criteria.where("_id").gt(lastId) : Criteria.where("_id").lt(lastId);
+        Criteria sameValueAfterId;
+        if (lastSortValue == null) {
+            sameValueAfterId = new Criteria().andOperator(Criteria.where(path).is(null), afterId);
+            return sortDirection == Sort.Direction.ASC
+                    ? new Criteria().orOperator(sameValueAfterId, Criteria.where(path).ne(null))
+                    : sameValueAfterId;
+        }
+
+        Object value = sortConverter.convert(lastSortValue);
+        sameValueAfterId = new Criteria().andOperator(Criteria.where(path).is(value), afterId);
+        return sortDirection == Sort.Direction.ASC
+                ? new Criteria().orOperator(Criteria.where(path).gt(value), sameValueAfterId)
+                : new Criteria().orOperator(Criteria.where(path).lt(value), sameValueAfterId, Criteria.where(path).is(null));
+    }
+}
@@ -0,0 +1,30 @@
+package com.backend.cms.repository;
+
+import com.backend.cms.model.Post;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.List;
+
+// Post queries with a projection chosen at runtime, which derived and @Query methods cannot express.
+// Posts are read through the PostCodec unless posts.codec.enabled is false.
+public interface PostRepositoryCustom {
+
+    // One page of the collection in _id order, starting after lastId when it is set.
+    // Only the given attributes are read when attributeNames is set.
+    List<Post> findPage(String collectionId, ObjectId lastId, int limit, List<String> attributeNames);
+
+    Post findByPostId(String postId, List<String> attributeNames);
+
+    List<Post> find(Query query);
+
+    // The iterator holds a cursor and has to be closed
+    CloseableIterator<Post> stream(Query query);
+
+    // Same reads returning the stored BSON as it is, for responses written straight from it
+    List<RawBsonDocument> findRawPage(String collectionId, ObjectId lastId, int limit, List<String> attributeNames);
+
+    CloseableIterator<RawBsonDocument> streamRaw(Query query);
+}
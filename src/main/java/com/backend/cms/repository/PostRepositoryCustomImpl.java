@@ -0,0 +1,155 @@
+package com.backend.cms.repository;
+
+import com.backend.cms.codec.PostCodec;
+import com.backend.cms.model.Post;
+import com.backend.cms.service.CollectionSchemaCache;
+import com.backend.cms.utils.FieldSelection;
+import com.backend.cms.validation.PostValidationPlan;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollectionSchemaCache collectionSchemaCache;
+
+    // Reads posts with the PostCodec instead of the reflective Spring Data mapping
+    @Value("${posts.codec.enabled:true}")
+    private boolean codecEnabled = true;
+
+    private CodecRegistry codecRegistry;
+
+    // The layout of a collection is only taken from the cache, a read never loads the collection
+    @PostConstruct
+    public void initializeCodec() {
+        CodecRegistry defaults = MongoClientSettings.getDefaultCodecRegistry();
+        PostCodec postCodec = new PostCodec(defaults, collectionId -> {
+            PostValidationPlan validationPlan = collectionSchemaCache.findCachedValidationPlan(collectionId);
+            return validationPlan != null ? validationPlan.getAttributeLayout() : null;
+        });
+        codecRegistry = CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(postCodec), defaults);
+    }
+
+    @Override
+    public List<Post> findPage(String collectionId, ObjectId lastId, int limit, List<String> attributeNames) {
+        return find(pageQuery(collectionId, lastId, limit, attributeNames));
+    }
+
+    @Override
+    public Post findByPostId(String postId, List<String> attributeNames) {
+        Query query = new Query(Criteria.where("postId").is(postId)).limit(1);
+        FieldSelection.project(query, attributeNames);
+        List<Post> posts = find(query);
+        return posts.isEmpty() ? null : posts.get(0);
+    }
+
+    @Override
+    public List<Post> find(Query query) {
+        if (!codecEnabled) {
+            return mongoTemplate.find(query, Post.class);
+        }
+        return mongoTemplate.execute(Post.class, collection -> {
+            List<Post> posts = new ArrayList<>();
+            toFindIterable(collection, query, Post.class).into(posts);
+            return posts;
+        });
+    }
+
+    @Override
+    public CloseableIterator<Post> stream(Query query) {
+        if (!codecEnabled) {
+            return mongoTemplate.stream(query, Post.class);
+        }
+        return toCloseableIterator(mongoTemplate.execute(Post.class, collection -> toFindIterable(collection, query, Post.class).iterator()));
+    }
+
+    @Override
+    public List<RawBsonDocument> findRawPage(String collectionId, ObjectId lastId, int limit, List<String> attributeNames) {
+        Query query = pageQuery(collectionId, lastId, limit, attributeNames);
+        return mongoTemplate.execute(Post.class, collection -> {
+            List<RawBsonDocument> posts = new ArrayList<>();
+            toFindIterable(collection, query, RawBsonDocument.class).into(posts);
+            return posts;
+        });
+    }
+
+    @Override
+    public CloseableIterator<RawBsonDocument> streamRaw(Query query) {
+        return toCloseableIterator(mongoTemplate.execute(Post.class, collection -> toFindIterable(collection, query, RawBsonDocument.class).iterator()));
+    }
+
+    private static Query pageQuery(String collectionId, ObjectId lastId, int limit, List<String> attributeNames) {
+        Criteria criteria = Criteria.where("collectionId").is(collectionId);
+        if (lastId != null) {
+            criteria.and("_id").gt(lastId);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(limit);
+        FieldSelection.project(query, attributeNames);
+        return query;
+    }
+
+    private static <T> CloseableIterator<T> toCloseableIterator(MongoCursor<T> cursor) {
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return cursor.next();
+            }
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        };
+    }
+
+    // The query is mapped the way MongoTemplate maps it, so both paths send the same command
+    private <T> FindIterable<T> toFindIterable(MongoCollection<Document> collection, Query query, Class<T> documentClass) {
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Post.class);
+        FindIterable<T> iterable = collection.withDocumentClass(documentClass)
+                .withCodecRegistry(codecRegistry)
+                .find(queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .projection(queryMapper.getMappedFields(query.getFieldsObject(), entity))
+                .sort(queryMapper.getMappedSort(query.getSortObject(), entity));
+        if (query.getSkip() > 0) {
+            iterable.skip((int) query.getSkip());
+        }
+        if (query.getLimit() > 0) {
+            iterable.limit(query.getLimit());
+        }
+        if (query.getMeta().getCursorBatchSize() != null) {
+            iterable.batchSize(query.getMeta().getCursorBatchSize());
+        }
+        return iterable;
+    }
+}
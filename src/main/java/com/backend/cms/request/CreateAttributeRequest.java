@@ -44,6 +44,9 @@ public class CreateAttributeRequest {
 
     private DateType dateType;
 
+    private boolean filterable;
+    private boolean sortable;
+
     public void setName(String name) {
         this.name =  name != null ? name.trim() : null;
     }
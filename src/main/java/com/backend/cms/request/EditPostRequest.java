@@ -11,4 +11,7 @@ public class EditPostRequest {
 
     private Map<String, Object> attributes;
 
+    // Optional, when set the update only applies if the post still has this version
+    private Long version;
+
 }
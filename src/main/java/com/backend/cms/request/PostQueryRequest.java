@@ -0,0 +1,71 @@
+package com.backend.cms.request;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Locale;
+
+@Data
+@NoArgsConstructor
+public class PostQueryRequest {
+
+    // All filters have to match
+    private List<Filter> filters;
+
+    // Optional, posts are returned in creation order when not set
+    private SortOrder sort;
+
+    private Integer size;
+
+    // nextCursor of the previous page of the same query
+    private String cursor;
+
+    // Optional, only these attributes are returned
+    private List<String> fields;
+
+    public enum Operator {
+        EQ, IN, PREFIX, RANGE;
+
+        @JsonCreator
+        public static Operator fromString(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public enum Direction {
+        ASC, DESC;
+
+        @JsonCreator
+        public static Direction fromString(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Filter {
+        private String attribute;
+        private Operator op;
+
+        // eq and prefix
+        private Object value;
+
+        // in
+        private List<Object> values;
+
+        // range, at least one bound
+        private Object gt;
+        private Object gte;
+        private Object lt;
+        private Object lte;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class SortOrder {
+        private String attribute;
+        private Direction direction = Direction.ASC;
+    }
+}
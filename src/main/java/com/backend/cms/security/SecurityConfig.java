@@ -1,6 +1,7 @@
 package com.backend.cms.security;
 
 import com.backend.cms.security.jwt.JwtTokenFilter;
+import com.backend.cms.security.ratelimit.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private JwtTokenFilter jwtTokenFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.csrf().disable();
@@ -31,6 +35,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
         // Add the JwtTokenFilter before the standard Spring Security filters
         http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        // Rate limiting needs the user id resolved by the JwtTokenFilter
+        http.addFilterAfter(rateLimitFilter, JwtTokenFilter.class);
         http.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS); // Set session creation policy
         http.exceptionHandling().authenticationEntryPoint((request, response, authException) -> {
             response.setContentType("application/json");
@@ -40,6 +46,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
         http.authorizeRequests()
                 .antMatchers("/api/v1/users/login").permitAll()
+                .antMatchers("/actuator/health").permitAll() // Metrics name collections and methods, so /actuator/prometheus needs a token
                 .antMatchers("/api/v1/users/{id}").authenticated() // Require authentication for the endpoint
                 .antMatchers("/api/v1/admin").permitAll()
                 .antMatchers("/api/v1/admin/initialize").permitAll()
@@ -0,0 +1,132 @@
+package com.backend.cms.security.jwt;
+
+import com.backend.cms.model.TokenRevocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Users whose tokens issued before a point in time are no longer accepted. Needed by the stateless
+// auth mode, where role and identity come from the token and the user is not loaded per request.
+// Each node keeps the list in memory and refreshes it from the token-revocation collection.
+@Component
+public class JwtRevocationList {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwtRevocationList.class);
+
+    // Revocations written by other nodes shortly before the last refresh are read again, to allow for clock skew
+    private static final long REFRESH_OVERLAP_MILLIS = 60_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${jwt.auth.mode:stateful}")
+    private String authMode;
+
+    @Value("${jwt.revocation.refresh-interval-ms:2000}")
+    private long refreshIntervalMillis;
+
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        if (!JwtTokenUtil.STATELESS_MODE.equals(authMode)) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "jwt-revocation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Rejects every token of the user issued until now, on this node immediately and on the others after their next refresh.
+    // Only stateless tokens are checked against the list, stateful mode loads the user instead.
+    public void revokeUser(String userId) {
+        if (userId == null || !JwtTokenUtil.STATELESS_MODE.equals(authMode)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        revokedBefore.merge(userId, now, Math::max);
+
+        Update update = new Update()
+                .set("revokedAt", new Date(now))
+                .set("expiresAt", new Date(now + JwtTokenUtil.TOKEN_VALIDITY_MILLIS));
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(userId)), update, TokenRevocation.class);
+    }
+
+    // The issued-at claim only has second precision, so a token from the same second as the revocation is rejected too
+    public boolean isRevoked(String userId, Date issuedAt) {
+        Long revokedAt = revokedBefore.get(userId);
+        return revokedAt != null && (issuedAt == null || issuedAt.getTime() <= revokedAt);
+    }
+
+    private void run() {
+        boolean indexEnsured = false;
+        long lastRefresh = 0;
+
+        while (running) {
+            try {
+                if (!indexEnsured) {
+                    mongoTemplate.indexOps(TokenRevocation.class).ensureIndex(new Index("expiresAt", Sort.Direction.ASC).expire(0));
+                    indexEnsured = true;
+                }
+                long refreshStartedAt = System.currentTimeMillis();
+                refresh(Math.max(0, lastRefresh - REFRESH_OVERLAP_MILLIS));
+                lastRefresh = refreshStartedAt;
+                TimeUnit.MILLISECONDS.sleep(refreshIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not refresh the token revocation list: {}", e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void refresh(long since) {
+        List<TokenRevocation> revocations = mongoTemplate.find(new Query(Criteria.where("revokedAt").gte(new Date(since))), TokenRevocation.class);
+        for (TokenRevocation revocation : revocations) {
+            revokedBefore.merge(revocation.getUserId(), revocation.getRevokedAt().getTime(), Math::max);
+        }
+
+        // Tokens issued before an old revocation have expired by now
+        long oldestRelevant = System.currentTimeMillis() - JwtTokenUtil.TOKEN_VALIDITY_MILLIS;
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < oldestRelevant);
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(refreshIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.backend.cms.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Bounded cache of already verified tokens. An entry lives until the token expires, at most max-ttl-seconds:
+// invalidateUser only reaches the cache of this node, so other nodes pick up a changed or deleted user
+// once their entry expires.
+@Component
+public class JwtTokenCache implements MeterBinder {
+
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize,
+                         @Value("${jwt.cache.max-ttl-seconds:30}") long maxTtlSeconds) {
+        this(maxSize, maxTtlSeconds, Ticker.systemTicker());
+    }
+
+    JwtTokenCache(long maxSize, long maxTtlSeconds, Ticker ticker) {
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remainingMillis = value.expiration.getTime() - System.currentTimeMillis();
+                        return Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0)), maxTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    // Returns the user details of a token verified earlier, or null if it has to be verified again
+    public CustomUserDetails get(String token) {
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(hash(token));
+        return verifiedToken != null ? verifiedToken.userDetails : null;
+    }
+
+    public void put(String token, Date expiration, CustomUserDetails userDetails) {
+        if (expiration == null || !expiration.after(new Date())) {
+            return;
+        }
+        verifiedTokens.put(hash(token), new VerifiedToken(expiration, userDetails));
+    }
+
+    // Drops every token of the user, so the next request loads the changed user again
+    public void invalidateUser(String userId) {
+        if (userId == null) {
+            return;
+        }
+        verifiedTokens.asMap().values().removeIf(verifiedToken -> userId.equals(verifiedToken.userDetails.getUsername()));
+    }
+
+    public void invalidateAll() {
+        verifiedTokens.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return verifiedTokens.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(verifiedTokens, "jwt.tokens", Tags.empty()).bindTo(registry);
+    }
+
+    // The raw token is a bearer credential, so only its hash is kept as the key
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final Date expiration;
+        private final CustomUserDetails userDetails;
+
+        private VerifiedToken(Date expiration, CustomUserDetails userDetails) {
+            this.expiration = expiration;
+            this.userDetails = userDetails;
+        }
+    }
+}
@@ -29,15 +29,15 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         final String tokenHeader = request.getHeader("Authorization");
         if (tokenHeader != null && tokenHeader.startsWith("Bearer ")) {
             String token = tokenHeader.substring(7);
-            if (jwtTokenUtil.validateToken(token)) {
-                try {
-                    // Set authentication context
-                    Authentication authentication = jwtTokenUtil.getAuthentication(token);
+            try {
+                // Set authentication context, an invalid token leaves the request unauthenticated
+                Authentication authentication = jwtTokenUtil.authenticate(token);
+                if (authentication != null) {
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                } catch (UsernameNotFoundException e) {
-                    handleAuthenticationError(response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
-                    return;
                 }
+            } catch (UsernameNotFoundException e) {
+                handleAuthenticationError(response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+                return;
             }
         }
         chain.doFilter(request, response);
@@ -1,5 +1,6 @@
 package com.backend.cms.security.jwt;
 
+import com.backend.cms.model.User;
 import com.backend.cms.model.UserType;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
@@ -18,12 +19,27 @@ import java.util.Map;
 
 @Component
 public class JwtTokenUtil {
+
+    public static final String STATELESS_MODE = "stateless";
+
+    public static final long TOKEN_VALIDITY_MILLIS = 7L * 24 * 60 * 60 * 1000; // 7 days
+
     @Value("${jwt.secret}")
     private String secret;
 
+    // stateful loads the user of every token, stateless trusts the verified _id and _userRole claims
+    @Value("${jwt.auth.mode:stateful}")
+    private String authMode;
+
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private JwtRevocationList jwtRevocationList;
+
     public String generateToken(String userId, UserType userRole) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("_id", userId);
@@ -32,17 +48,62 @@ public class JwtTokenUtil {
         return Jwts.builder()
                 .setClaims(claims)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 7 * 24 * 60 * 60 * 1000)) // 7 days
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MILLIS))
                 .signWith(SignatureAlgorithm.HS256, secret)
                 .compact();
     }
 
     public Boolean validateToken(String token) {
+        return parseValidClaims(token) != null;
+    }
+
+    // Verifies the token once and resolves its user, a repeated token is served from the cache.
+    // Returns null for an invalid or expired token.
+    public Authentication authenticate(String token) {
+        if (STATELESS_MODE.equals(authMode)) {
+            return authenticateFromClaims(token);
+        }
+        CustomUserDetails userDetails = jwtTokenCache.get(token);
+        if (userDetails == null) {
+            Claims claims = parseValidClaims(token);
+            if (claims == null) {
+                return null;
+            }
+            userDetails = (CustomUserDetails) customUserDetailsService.loadUserByUsername((String) claims.get("_id"));
+            jwtTokenCache.put(token, claims.getExpiration(), userDetails);
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+    }
+
+    // Builds the principal from the claims alone, the user collection is not read
+    private Authentication authenticateFromClaims(String token) {
+        Claims claims = parseValidClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        String userId = (String) claims.get("_id");
+        Object userRole = claims.get("_userRole");
+        if (userId == null || userRole == null || jwtRevocationList.isRevoked(userId, claims.getIssuedAt())) {
+            return null;
+        }
+
+        User user = new User();
+        user.setUserId(userId);
+        try {
+            user.setUserType(UserType.valueOf(userRole.toString()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+    }
+
+    private Claims parseValidClaims(String token) {
         try {
-            Jws<Claims> claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-            return !claims.getBody().getExpiration().before(new Date());
+            Claims claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+            return claims.getExpiration().before(new Date()) ? null : claims;
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
 
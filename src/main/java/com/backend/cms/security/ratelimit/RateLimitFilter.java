@@ -0,0 +1,111 @@
+package com.backend.cms.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Admission control per client, runs right after JwtTokenFilter. Authenticated requests are limited per
+// user id, anonymous ones (like logins) per remote address. Each rule has its own buckets, requests that
+// match no rule use the default limit. Idle buckets are evicted, which bounds the memory used.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final boolean enabled;
+    private final List<RateLimitRule> rules = new ArrayList<>();
+    private final RateLimitRule defaultRule;
+    private final Cache<String, TokenBucket> buckets;
+
+    @Autowired
+    public RateLimitFilter(@Value("${ratelimit.enabled:true}") boolean enabled,
+                           @Value("${ratelimit.routes:}") String[] routes,
+                           @Value("${ratelimit.default:* /** 200 100}") String defaultRoute,
+                           @Value("${ratelimit.max-buckets:100000}") long maxBuckets,
+                           @Value("${ratelimit.idle-seconds:600}") long idleSeconds) {
+        this.enabled = enabled;
+        for (int i = 0; i < routes.length; i++) {
+            if (!routes[i].isBlank()) {
+                rules.add(RateLimitRule.parse("route" + i, routes[i]));
+            }
+        }
+        this.defaultRule = RateLimitRule.parse("default", defaultRoute);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RateLimitRule rule = findRule(request);
+        String key = rule.getName() + ":" + clientKey(request);
+        long now = System.nanoTime();
+        TokenBucket.Result result = buckets.get(key, ignored -> rule.newBucket(now)).tryConsume(now);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(result.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(result.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(result.resetSeconds()));
+        if (!result.allowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(result.retryAfterSeconds()));
+            handleRateLimited(response);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private RateLimitRule findRule(HttpServletRequest request) {
+        String path = request.getServletPath() + (request.getPathInfo() != null ? request.getPathInfo() : "");
+        for (RateLimitRule rule : rules) {
+            if (rule.matches(request.getMethod(), path)) {
+                return rule;
+            }
+        }
+        return defaultRule;
+    }
+
+    // Forwarded headers are not trusted here, behind a proxy use server.forward-headers-strategy
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void handleRateLimited(HttpServletResponse response) throws IOException {
+        response.setStatus(TOO_MANY_REQUESTS);
+        response.setContentType("application/json");
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", TOO_MANY_REQUESTS);
+        errorResponse.put("message", "Too many requests");
+
+        new ObjectMapper().writeValue(response.getWriter(), errorResponse);
+    }
+}
@@ -0,0 +1,43 @@
+package com.backend.cms.security.ratelimit;
+
+import org.springframework.util.AntPathMatcher;
+
+// One configured limit, written as "<method or *> <path pattern> <capacity> <refill per second>"
+public class RateLimitRule {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final String name;
+    private final String method;
+    private final String pattern;
+    private final long capacity;
+    private final double refillPerSecond;
+
+    public RateLimitRule(String name, String method, String pattern, long capacity, double refillPerSecond) {
+        this.name = name;
+        this.method = method;
+        this.pattern = pattern;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+    }
+
+    public static RateLimitRule parse(String name, String definition) {
+        String[] parts = definition.trim().split("\\s+");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid rate limit rule '" + definition + "', expected '<method> <pattern> <capacity> <refill per second>'");
+        }
+        return new RateLimitRule(name, parts[0], parts[1], Long.parseLong(parts[2]), Double.parseDouble(parts[3]));
+    }
+
+    public boolean matches(String requestMethod, String path) {
+        return ("*".equals(method) || method.equalsIgnoreCase(requestMethod)) && PATH_MATCHER.match(pattern, path);
+    }
+
+    public TokenBucket newBucket(long nowNanos) {
+        return new TokenBucket(capacity, refillPerSecond, nowNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+}
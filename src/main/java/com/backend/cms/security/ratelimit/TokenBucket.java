@@ -0,0 +1,49 @@
+package com.backend.cms.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket. Instead of a token count the bucket keeps the time at which it would be
+// full again (the generic cell rate algorithm), so its whole state is a single long updated with CAS.
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long capacity;
+    // Time it takes to refill one token
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.capacity = capacity;
+        this.refillIntervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / refillPerSecond));
+        this.burstNanos = capacity * refillIntervalNanos;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    public Result tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + refillIntervalNanos;
+            if (next - nowNanos > burstNanos) {
+                // Not enough tokens, the next one is available once the bucket has drained by one interval
+                long waitNanos = next - nowNanos - burstNanos;
+                return new Result(false, capacity, 0, toSeconds(current - nowNanos), toSeconds(waitNanos));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                long remaining = (burstNanos - (next - nowNanos)) / refillIntervalNanos;
+                return new Result(true, capacity, remaining, toSeconds(next - nowNanos), 0);
+            }
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return nanos <= 0 ? 0 : (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+    }
+
+    public record Result(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+    }
+}
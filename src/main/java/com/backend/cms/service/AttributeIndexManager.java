@@ -0,0 +1,276 @@
+package com.backend.cms.service;
+
+import com.backend.cms.dto.AttributeIndexDTO;
+import com.backend.cms.model.*;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Keeps a {collectionId, attributes.<name>, _id} index on the posts for every attribute marked filterable, sortable
+// or unique. Attributes with the same name share one index, since the collectionId prefix keeps the collections
+// apart, so an index is only dropped once no collection needs it anymore. Indexes are built one at a time on a
+// background thread, and a reconcile requested while one is running is coalesced into a single next pass.
+@Component
+public class AttributeIndexManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AttributeIndexManager.class);
+
+    static final String INDEX_PREFIX = "attr_";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${collections.indexes.enabled:true}")
+    private boolean enabled;
+
+    // Mongo allows 64 indexes per collection, the rest are left for the fixed post indexes
+    @Value("${collections.indexes.max-attribute-indexes:48}")
+    private int maxAttributeIndexes;
+
+    // A PENDING state read from Mongo is read again after this long, the index may be built by another node
+    @Value("${collections.indexes.status-refresh-ms:30000}")
+    private long statusRefreshMillis;
+
+    // State of every attribute index by name: builds of this node, indexes found by the reconcile pass,
+    // and states looked up for the schema endpoints, so reading a schema does not list the indexes
+    private final Map<String, Build> builds = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attribute-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static boolean needsIndex(Attribute attribute) {
+        return attribute.isFilterable() || attribute.isSortable() || isUnique(attribute);
+    }
+
+    public static String indexName(String attributeName) {
+        return INDEX_PREFIX + attributeName;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        requestReconcile();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public void requestReconcile() {
+        if (enabled && reconcileQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                // Cleared first, so changes made during this pass queue another one
+                reconcileQueued.set(false);
+                try {
+                    reconcile();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Could not reconcile the attribute indexes: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    // Creates the missing attribute indexes and drops the ones no collection needs anymore
+    void reconcile() {
+        Set<String> needed = new TreeSet<>();
+        Query query = new Query();
+        query.fields().include("attributes");
+        for (Collection collection : mongoTemplate.find(query, Collection.class)) {
+            for (Attribute attribute : collection.getAttributes()) {
+                if (needsIndex(attribute)) {
+                    needed.add(attribute.getName());
+                }
+            }
+        }
+
+        builds.keySet().removeIf(indexName -> !needed.contains(indexName.substring(INDEX_PREFIX.length())));
+
+        IndexOperations indexOperations = mongoTemplate.indexOps(Post.class);
+        List<IndexInfo> indexInfos = indexOperations.getIndexInfo();
+        // Indexes built without the _id tie-break cannot serve the sorted pages, they are built again
+        for (IndexInfo indexInfo : indexInfos) {
+            if (indexInfo.getName().startsWith(INDEX_PREFIX) && !hasIdTieBreak(indexInfo)) {
+                LOGGER.info("Dropping attribute index {} to rebuild it with the _id tie-break", indexInfo.getName());
+                indexOperations.dropIndex(indexInfo.getName());
+            }
+        }
+        Set<String> existing = existingAttributeIndexes(indexInfos);
+
+        for (String indexName : existing) {
+            if (!needed.contains(indexName.substring(INDEX_PREFIX.length()))) {
+                LOGGER.info("Dropping attribute index {}", indexName);
+                indexOperations.dropIndex(indexName);
+                builds.remove(indexName);
+            }
+        }
+        existing.retainAll(needed.stream().map(AttributeIndexManager::indexName).toList());
+
+        for (String attributeName : needed) {
+            String indexName = indexName(attributeName);
+            if (existing.contains(indexName)) {
+                builds.put(indexName, Build.READY);
+                continue;
+            }
+            if (existing.size() >= maxAttributeIndexes) {
+                builds.put(indexName, new Build(IndexState.FAILED, "The limit of " + maxAttributeIndexes + " attribute indexes is reached"));
+                continue;
+            }
+            build(indexOperations, attributeName, indexName);
+            existing.add(indexName);
+        }
+    }
+
+    private void build(IndexOperations indexOperations, String attributeName, String indexName) {
+        builds.put(indexName, new Build(IndexState.BUILDING, null));
+        long start = System.currentTimeMillis();
+        try {
+            indexOperations.ensureIndex(new Index()
+                    .on("collectionId", Sort.Direction.ASC)
+                    .on("attributes." + attributeName, Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named(indexName));
+            builds.put(indexName, Build.READY);
+            LOGGER.info("Built attribute index {} in {} ms", indexName, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            builds.put(indexName, new Build(IndexState.FAILED, e.getMessage()));
+            LOGGER.error("Could not build attribute index {}: {}", indexName, e.getMessage());
+        }
+    }
+
+    // Index status of every attribute of the collection that needs an index
+    public List<AttributeIndexDTO> statusOf(Collection collection) {
+        List<AttributeIndexDTO> statuses = new ArrayList<>();
+        Set<String> existing = null;
+        Map<String, Integer> progress = null;
+
+        for (Attribute attribute : collection.getAttributes()) {
+            if (!needsIndex(attribute)) {
+                continue;
+            }
+            String indexName = indexName(attribute.getName());
+            Build build = builds.get(indexName);
+            if (build != null && build.state == IndexState.BUILDING) {
+                if (progress == null) {
+                    progress = buildProgress();
+                }
+                statuses.add(new AttributeIndexDTO(attribute.getName(), indexName, IndexState.BUILDING, progress.get(indexName), null));
+            } else {
+                if (build == null || build.isStale(statusRefreshMillis)) {
+                    if (existing == null) {
+                        existing = existingAttributeIndexes(mongoTemplate.indexOps(Post.class).getIndexInfo());
+                    }
+                    Build lookedUp = existing.contains(indexName) ? Build.READY : new Build(IndexState.PENDING, null, System.currentTimeMillis());
+                    // Not stored over a state the reconcile pass set meanwhile
+                    if (build == null) {
+                        builds.putIfAbsent(indexName, lookedUp);
+                    } else {
+                        builds.replace(indexName, build, lookedUp);
+                    }
+                    build = lookedUp;
+                }
+                statuses.add(new AttributeIndexDTO(attribute.getName(), indexName, build.state, null, build.error));
+            }
+        }
+        return statuses;
+    }
+
+    private static Set<String> existingAttributeIndexes(List<IndexInfo> indexInfos) {
+        Set<String> names = new HashSet<>();
+        for (IndexInfo indexInfo : indexInfos) {
+            if (indexInfo.getName().startsWith(INDEX_PREFIX) && hasIdTieBreak(indexInfo)) {
+                names.add(indexInfo.getName());
+            }
+        }
+        return names;
+    }
+
+    private static boolean hasIdTieBreak(IndexInfo indexInfo) {
+        List<IndexField> fields = indexInfo.getIndexFields();
+        return fields.size() == 3 && fields.get(2).getKey().equals("_id");
+    }
+
+    // Scanned percentage of the running index builds on the posts, read from $currentOp.
+    // Left empty when the user is not allowed to run currentOp.
+    private Map<String, Integer> buildProgress() {
+        Map<String, Integer> progress = new HashMap<>();
+        try {
+            Document result = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin").runCommand(
+                    new Document("currentOp", true).append("command.createIndexes", mongoTemplate.getCollectionName(Post.class)));
+            for (Document operation : result.getList("inprog", Document.class, List.of())) {
+                Document opProgress = operation.get("progress", Document.class);
+                Document command = operation.get("command", Document.class);
+                if (opProgress == null || command == null) {
+                    continue;
+                }
+                long done = ((Number) opProgress.get("done")).longValue();
+                long total = ((Number) opProgress.get("total")).longValue();
+                int percent = total > 0 ? (int) Math.min(100, done * 100 / total) : 0;
+                for (Document index : command.getList("indexes", Document.class, List.of())) {
+                    progress.put(index.getString("name"), percent);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not read the index build progress: {}", e.getMessage());
+        }
+        return progress;
+    }
+
+    private static boolean isUnique(Attribute attribute) {
+        return attribute instanceof TextAttribute textAttribute && textAttribute.isUnique()
+                || attribute instanceof NumberAttribute numberAttribute && numberAttribute.isUnique()
+                || attribute instanceof DateAttribute dateAttribute && dateAttribute.isUnique();
+    }
+
+    private static final class Build {
+        private static final Build READY = new Build(IndexState.READY, null);
+
+        private final IndexState state;
+        private final String error;
+        // When a PENDING state was looked up in Mongo, 0 for states known on this node
+        private final long lookedUpAt;
+
+        private Build(IndexState state, String error) {
+            this(state, error, 0);
+        }
+
+        private Build(IndexState state, String error, long lookedUpAt) {
+            this.state = state;
+            this.error = error;
+            this.lookedUpAt = lookedUpAt;
+        }
+
+        private boolean isStale(long refreshMillis) {
+            return lookedUpAt > 0 && System.currentTimeMillis() - lookedUpAt >= refreshMillis;
+        }
+    }
+}
@@ -13,7 +13,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -22,11 +21,13 @@ public class AuthService {
 
     private final UserRepository userRepository;
     private final JwtTokenUtil jwtTokenUtil;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
-    public AuthService(UserRepository userRepository, JwtTokenUtil jwtTokenUtil) {
+    public AuthService(UserRepository userRepository, JwtTokenUtil jwtTokenUtil, PasswordHashingExecutor passwordHashingExecutor) {
         this.userRepository = userRepository;
         this.jwtTokenUtil = jwtTokenUtil;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     public String login(String email, String password) {
@@ -42,8 +43,8 @@ public class AuthService {
             throw new NotFoundException();
         }
 
-        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-        if (!encoder.matches(password, user.getPassword())) {
+        // Hashed off the request thread with the configured PasswordEncoder
+        if (!passwordHashingExecutor.matches(password, user.getPassword())) {
             throw new UnauthorizedException();
         }
 //         Generate a JWT token
@@ -0,0 +1,213 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Evicts collection schemas changed by other nodes from the local CollectionSchemaCache.
+// Watches the collection-type collection with a change stream, and falls back to polling
+// the lastModified field when the server does not support change streams (standalone mongod).
+@Component
+public class CollectionInvalidationListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CollectionInvalidationListener.class);
+
+    private static final String COLLECTION_NAME = "collection-type";
+
+    // Server error returned by $changeStream on a standalone mongod
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollectionSchemaCache collectionSchemaCache;
+
+    @Value("${collections.invalidation.enabled:true}")
+    private boolean enabled;
+
+    // auto, change-stream or polling
+    @Value("${collections.invalidation.mode:auto}")
+    private String mode;
+
+    @Value("${collections.invalidation.poll-interval-ms:2000}")
+    private long pollIntervalMillis;
+
+    @Value("${collections.invalidation.retry-delay-ms:5000}")
+    private long retryDelayMillis;
+
+    private final LongAdder invalidationCount = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Polling position: the newest lastModified seen and the collections already invalidated at exactly that time.
+    // Polling matches lastModified >= lastSeen so a change within the same millisecond is not missed.
+    private Date lastSeen = new Date();
+    private final Set<String> seenAtLastSeen = new HashSet<>();
+    private boolean pollingIndexEnsured;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "collection-invalidation");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        boolean usePolling = "polling".equals(mode);
+        BsonDocument resumeToken = null;
+
+        while (running) {
+            try {
+                if (usePolling) {
+                    poll();
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+                } else {
+                    resumeToken = watch(resumeToken);
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED && "auto".equals(mode)) {
+                    LOGGER.info("Change streams are not supported by the server, polling collection changes instead");
+                    usePolling = true;
+                } else {
+                    handleFailure(e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                handleFailure(e);
+            }
+        }
+    }
+
+    private BsonDocument watch(BsonDocument resumeToken) {
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getCollection(COLLECTION_NAME).watch().fullDocument(FullDocument.UPDATE_LOOKUP);
+        if (resumeToken != null) {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    onChange(change);
+                }
+                if (cursor.getResumeToken() != null) {
+                    resumeToken = cursor.getResumeToken();
+                }
+            }
+        }
+        return resumeToken;
+    }
+
+    private void onChange(ChangeStreamDocument<Document> change) {
+        Document fullDocument = change.getFullDocument();
+        if (change.getOperationType() != OperationType.DELETE && fullDocument != null) {
+            collectionSchemaCache.invalidateById(fullDocument.getString("collectionId"));
+        } else {
+            // Deletes only carry the _id, which the cache is not keyed by
+            collectionSchemaCache.invalidateAll();
+        }
+
+        BsonTimestamp clusterTime = change.getClusterTime();
+        recordInvalidation(clusterTime != null ? clusterTime.getTime() * 1000L : System.currentTimeMillis());
+    }
+
+    // Deleted collections are not visible to polling, their cached entries expire through the cache TTL
+    void poll() {
+        if (!pollingIndexEnsured) {
+            // Keeps every poll a range scan of the index, created here since index creation from the mapping is off
+            mongoTemplate.indexOps(Collection.class).ensureIndex(new Index("lastModified", Sort.Direction.ASC));
+            pollingIndexEnsured = true;
+        }
+        Query query = new Query(Criteria.where("lastModified").gte(lastSeen))
+                .with(Sort.by(Sort.Direction.ASC, "lastModified"));
+        query.fields().include("collectionId").include("name").include("lastModified");
+
+        for (Collection collection : mongoTemplate.find(query, Collection.class)) {
+            Date lastModified = collection.getLastModified();
+            if (lastModified.after(lastSeen)) {
+                lastSeen = lastModified;
+                seenAtLastSeen.clear();
+            }
+            if (!seenAtLastSeen.add(collection.getCollectionId())) {
+                continue;
+            }
+            collectionSchemaCache.invalidateById(collection.getCollectionId());
+            recordInvalidation(lastModified.getTime());
+        }
+    }
+
+    private void handleFailure(RuntimeException e) {
+        LOGGER.warn("Collection invalidation stream failed, retrying in {} ms: {}", retryDelayMillis, e.getMessage());
+        // Changes may have been missed while disconnected
+        collectionSchemaCache.invalidateAll();
+        try {
+            TimeUnit.MILLISECONDS.sleep(retryDelayMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void recordInvalidation(long changedAtMillis) {
+        long lag = Math.max(0, System.currentTimeMillis() - changedAtMillis);
+        invalidationCount.increment();
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis.get();
+    }
+}
@@ -0,0 +1,124 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import com.backend.cms.query.PostQueryPlan;
+import com.backend.cms.validation.PostValidationPlan;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Bounded in-process cache of collection schemas, looked up either by collectionId or by name
+@Component
+public class CollectionSchemaCache implements MeterBinder {
+
+    private static final long MAX_QUERY_PLANS_PER_COLLECTION = 100;
+
+    private final Cache<String, Collection> collectionsById;
+    private final Cache<String, Collection> collectionsByName;
+
+    // Keyed by collection instance, so a plan is dropped together with the cached schema it was compiled from
+    private final Cache<Collection, PostValidationPlan> validationPlans;
+
+    // Query plans of each collection instance, keyed by query shape
+    private final Cache<Collection, Cache<String, PostQueryPlan>> queryPlans;
+
+    @Autowired
+    public CollectionSchemaCache(@Value("${collections.cache.max-size:1000}") long maxSize,
+                                 @Value("${collections.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.collectionsById = buildCache(maxSize, ttlSeconds);
+        this.collectionsByName = buildCache(maxSize, ttlSeconds);
+        this.validationPlans = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxSize)
+                .build();
+        this.queryPlans = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    private static Cache<String, Collection> buildCache(long maxSize, long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // Returns the cached collection or loads it, a null result from the loader is not cached
+    public Collection getById(String collectionId, Function<String, Collection> loader) {
+        return collectionsById.get(collectionId, loader);
+    }
+
+    public Collection getByName(String name, Function<String, Collection> loader) {
+        return collectionsByName.get(name, loader);
+    }
+
+    public PostValidationPlan getValidationPlan(Collection collection) {
+        return validationPlans.get(collection, cached -> PostValidationPlan.compile(cached.getAttributes()));
+    }
+
+    // Validation plan of a cached collection, null when the collection is not cached. Never loads it.
+    public PostValidationPlan findCachedValidationPlan(String collectionId) {
+        Collection collection = collectionsById.getIfPresent(collectionId);
+        return collection != null ? getValidationPlan(collection) : null;
+    }
+
+    public PostQueryPlan getQueryPlan(Collection collection, String shape, Supplier<PostQueryPlan> compiler) {
+        Cache<String, PostQueryPlan> plans = queryPlans.get(collection, cached -> Caffeine.newBuilder()
+                .maximumSize(MAX_QUERY_PLANS_PER_COLLECTION)
+                .build());
+        return plans.get(shape, ignored -> compiler.get());
+    }
+
+    public void invalidate(Collection collection) {
+        if (collection == null) {
+            return;
+        }
+        invalidateById(collection.getCollectionId());
+        if (collection.getName() != null) {
+            collectionsByName.invalidate(collection.getName());
+        }
+    }
+
+    public void invalidateById(String collectionId) {
+        if (collectionId == null) {
+            return;
+        }
+        collectionsById.invalidate(collectionId);
+        // The name entry of the same collection has to go too, even if the name has changed since it was cached
+        collectionsByName.asMap().values().removeIf(collection -> collectionId.equals(collection.getCollectionId()));
+    }
+
+    public void invalidateAll() {
+        collectionsById.invalidateAll();
+        collectionsByName.invalidateAll();
+        validationPlans.invalidateAll();
+        queryPlans.invalidateAll();
+    }
+
+    public CacheStats statsById() {
+        return collectionsById.stats();
+    }
+
+    public CacheStats statsByName() {
+        return collectionsByName.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(collectionsById, "collections.byId", Tags.empty()).bindTo(registry);
+        new CaffeineCacheMetrics(collectionsByName, "collections.byName", Tags.empty()).bindTo(registry);
+    }
+}
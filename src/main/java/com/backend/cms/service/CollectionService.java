@@ -15,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -25,32 +26,37 @@ public class CollectionService {
     @Autowired
     private CollectionRepository collectionRepository;
 
+    @Autowired
+    private CollectionSchemaCache collectionSchemaCache;
+
+    @Autowired
+    private AttributeIndexManager attributeIndexManager;
 
     public Collection findCollectionFailIfNotFound(String id) {
-        Collection collection = collectionRepository.findByCollectionId(id);
+        Collection collection = collectionSchemaCache.getById(id, collectionRepository::findByCollectionId);
         if (collection == null) throw new NotFoundException();
 
         return collection;
     }
 
     public Collection findCollectionByNameFailIfNotFound(String name) {
-        Collection collection = collectionRepository.findByName(name);
+        Collection collection = collectionSchemaCache.getByName(name, collectionRepository::findByName);
         if (collection == null) throw new NotFoundException();
 
         return collection;
     }
 
+    // Generated ids are unique without a lookup
     public String findNewId() {
-        String id;
-        do {
-            id = Generator.generateId("c");
-        } while (collectionRepository.findByCollectionId(id) != null);
-        return id;
+        return Generator.generateId("c");
     }
 
     public void save(Collection collection) {
         if (collection != null) {
+            collection.setLastModified(new Date());
             collectionRepository.save(collection);
+            collectionSchemaCache.invalidate(collection);
+            attributeIndexManager.requestReconcile();
         }
     }
 
@@ -129,8 +135,13 @@ public class CollectionService {
             } else if (attribute instanceof DateAttribute && request.getContentType() == ContentType.DATE) {
                 setDateAttributeProperties((DateAttribute) attribute, request);
             }
+            attribute.setFilterable(request.isFilterable());
+            attribute.setSortable(request.isSortable());
 
             addAttributeToCollectionAndSave(collection, attribute);
+            if (AttributeIndexManager.needsIndex(attribute)) {
+                attributeIndexManager.requestReconcile();
+            }
         } else {
             throw new NotFoundException();
         }
@@ -169,7 +180,9 @@ public class CollectionService {
 
     private void addAttributeToCollectionAndSave(Collection collection, Attribute attribute) {
         collection.getAttributes().add(attribute);
+        collection.setLastModified(new Date());
         collectionRepository.save(collection);
+        collectionSchemaCache.invalidate(collection);
     }
 
     public Attribute createAttributeInstance(CreateAttributeRequest request) {
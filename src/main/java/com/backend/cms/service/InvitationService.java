@@ -6,8 +6,6 @@ import com.backend.cms.model.UserType;
 import com.backend.cms.repository.UserRepository;
 import com.backend.cms.request.CreateUserRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import java.util.UUID;
 
@@ -15,7 +13,7 @@ import java.util.UUID;
 public class InvitationService {
 
     @Autowired
-    private JavaMailSender javaMailSender;
+    private MailOutbox mailOutbox;
 
     @Autowired
     private UserService userService;
@@ -43,14 +41,12 @@ public class InvitationService {
         sendEmail(recipientEmail, token);
     }
 
+    // Queued in the outbox, the SMTP round-trip happens outside the request
     private void sendEmail(String recipientEmail, String token) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(recipientEmail);
-        message.setSubject("Invitation to CMS System");
-       // message.setText("http://localhost:3000/sign-up?token=" + token);
-        message.setText("https://webease-frontend.vercel.app/sign-up?token=" + token);
+       // String text = "http://localhost:3000/sign-up?token=" + token;
+        String text = "https://webease-frontend.vercel.app/sign-up?token=" + token;
 
-        javaMailSender.send(message);
+        mailOutbox.enqueue(recipientEmail, "Invitation to CMS System", text);
     }
 
     public String generateUniqueToken() {
@@ -0,0 +1,33 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.MailStatus;
+import com.backend.cms.model.OutboxMail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+// Persistent queue of outgoing mails, the request only inserts and the MailOutboxWorker does the SMTP work
+@Service
+public class MailOutbox {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Lazy
+    @Autowired
+    private MailOutboxWorker mailOutboxWorker;
+
+    public OutboxMail enqueue(String recipient, String subject, String text) {
+        OutboxMail mail = mongoTemplate.insert(new OutboxMail(recipient, subject, text));
+        mailOutboxWorker.wakeUp();
+        return mail;
+    }
+
+    // Mails not sent yet, including those waiting for a retry
+    public long countPending() {
+        return mongoTemplate.count(new Query(Criteria.where("status").in(MailStatus.PENDING, MailStatus.SENDING)), OutboxMail.class);
+    }
+}
@@ -0,0 +1,250 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.MailStatus;
+import com.backend.cms.model.OutboxMail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drains the mail outbox in the background. Mails are claimed in batches and each batch is sent with one
+// JavaMailSender.send call, which reuses a single SMTP connection for the whole batch. Failed mails are
+// retried with exponential backoff and marked FAILED after the last attempt. Several nodes can run the
+// worker, a mail is only claimed by one of them at a time.
+@Component
+public class MailOutboxWorker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailOutboxWorker.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JavaMailSender javaMailSender;
+
+    @Value("${mail.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mail.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-initial-ms:5000}")
+    private long backoffInitialMillis;
+
+    @Value("${mail.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMillis;
+
+    @Value("${mail.outbox.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${mail.outbox.retention-days:7}")
+    private long retentionDays;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "mail-outbox");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    // Lets a freshly enqueued mail go out without waiting for the next poll
+    public void wakeUp() {
+        wakeUp.release();
+    }
+
+    private void run() {
+        boolean indexesEnsured = false;
+        while (running) {
+            try {
+                if (!indexesEnsured) {
+                    ensureIndexes();
+                    indexesEnsured = true;
+                }
+                List<OutboxMail> batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+                queueDepth.set(mongoTemplate.count(new Query(Criteria.where("status").in(MailStatus.PENDING, MailStatus.SENDING)), OutboxMail.class));
+                // A full batch means there may be more mails waiting
+                if (batch.size() < batchSize) {
+                    wakeUp.tryAcquire(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    wakeUp.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Mail outbox worker failed, retrying in {} ms: {}", pollIntervalMillis, e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void ensureIndexes() {
+        mongoTemplate.indexOps(OutboxMail.class).ensureIndex(new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC));
+        // Sent mails are only kept for a while, the sentAt field is missing until then
+        mongoTemplate.indexOps(OutboxMail.class).ensureIndex(new Index("sentAt", Sort.Direction.ASC).expire(Duration.ofDays(retentionDays)));
+    }
+
+    // Claims due mails one by one, so concurrent workers never get the same mail
+    private List<OutboxMail> claimBatch() {
+        List<OutboxMail> batch = new ArrayList<>();
+        Date now = new Date();
+        Query due = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(MailStatus.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(MailStatus.SENDING).and("lockedUntil").lte(now)))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", MailStatus.SENDING)
+                .set("lockedUntil", new Date(now.getTime() + leaseMillis));
+
+        while (batch.size() < batchSize) {
+            OutboxMail mail = mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), OutboxMail.class);
+            if (mail == null) {
+                break;
+            }
+            batch.add(mail);
+        }
+        return batch;
+    }
+
+    void deliver(List<OutboxMail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+        }
+
+        try {
+            javaMailSender.send(messages);
+            batch.forEach(this::markSent);
+        } catch (MailSendException e) {
+            // Only the listed messages failed, the rest of the batch went out
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (int i = 0; i < batch.size(); i++) {
+                Exception failure = failedMessages.get(messages[i]);
+                if (failedMessages.isEmpty() || failure != null) {
+                    markFailedAttempt(batch.get(i), failure != null ? failure : e);
+                } else {
+                    markSent(batch.get(i));
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> markFailedAttempt(mail, e));
+        }
+    }
+
+    private SimpleMailMessage toMessage(OutboxMail mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getText());
+        return message;
+    }
+
+    private void markSent(OutboxMail mail) {
+        Update update = new Update()
+                .set("status", MailStatus.SENT)
+                .set("sentAt", new Date())
+                .inc("attempts", 1)
+                .unset("lockedUntil");
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(mail.get_id())), update, OutboxMail.class);
+        sentCount.increment();
+    }
+
+    private void markFailedAttempt(OutboxMail mail, Exception failure) {
+        int attempts = mail.getAttempts() + 1;
+        Update update = new Update()
+                .set("attempts", attempts)
+                .set("lastError", failure.getMessage())
+                .unset("lockedUntil");
+
+        if (attempts >= maxAttempts) {
+            LOGGER.error("Giving up on mail to {} after {} attempts: {}", mail.getRecipient(), attempts, failure.getMessage());
+            update.set("status", MailStatus.FAILED);
+            failedCount.increment();
+        } else {
+            long backoff = Math.min(backoffMaxMillis, backoffInitialMillis << Math.min(attempts - 1, 20));
+            LOGGER.warn("Sending mail to {} failed, retrying in {} ms: {}", mail.getRecipient(), backoff, failure.getMessage());
+            update.set("status", MailStatus.PENDING).set("nextAttemptAt", new Date(System.currentTimeMillis() + backoff));
+            retryCount.increment();
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(mail.get_id())), update, OutboxMail.class);
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(pollIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    // Last seen number of mails not sent yet
+    public long getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+}
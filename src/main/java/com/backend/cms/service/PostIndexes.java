@@ -0,0 +1,44 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+// Creates the fixed indexes of the posts on a background thread after startup, since index creation from
+// the mapping annotations is off. Indexes on attributes are kept by AttributeIndexManager.
+@Component
+public class PostIndexes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostIndexes.class);
+
+    static final String CURSOR_INDEX = "collection_cursor";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Thread worker = new Thread(this::ensureIndexes, "post-indexes");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    void ensureIndexes() {
+        try {
+            // Serves the keyset pages of a collection, {collectionId, _id > cursor} sorted by _id
+            mongoTemplate.indexOps(Post.class).ensureIndex(new Index()
+                    .on("collectionId", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named(CURSOR_INDEX));
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not create the post indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import com.backend.cms.model.Post;
+import com.backend.cms.repository.PostRepository;
+import com.backend.cms.utils.FieldSelection;
+import com.backend.cms.utils.SearchHighlighter;
+import com.backend.cms.validation.PostValidationPlan;
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Keeps the plain text of the TEXT and RICHTEXT attributes of a post in Post.searchText, backed by a
+// {collectionId, searchText} text index. The collectionId prefix makes every search an equality
+// match on the collection, so a search only reads the index entries of one collection.
+// The texts are always written as a whole from every searchable attribute of the post. The index is
+// created, and the texts of older posts are backfilled, on a background thread after startup.
+@Component
+public class PostSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    static final String SEARCH_TEXT_FIELD = "searchText";
+
+    private static final String INDEX_NAME = "post_search";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    // Language used for stemming and stop words, "none" only splits words
+    @Value("${posts.search.language:english}")
+    private String language;
+
+    @Value("${posts.search.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Text to index for every searchable attribute
+    public static List<String> textsFor(List<String> searchableAttributes, Map<String, Object> attributes) {
+        List<String> texts = new ArrayList<>(searchableAttributes.size());
+        for (String attributeName : searchableAttributes) {
+            texts.add(textOf(attributes.get(attributeName)));
+        }
+        return texts;
+    }
+
+    public static String textOf(Object value) {
+        return value != null ? SearchHighlighter.plainText(value.toString()) : "";
+    }
+
+    // Page of the posts matching the search, most relevant first
+    public List<Post> search(String collectionId, String search, int skip, int limit, List<String> attributeNames) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(search))
+                .sortByScore()
+                .addCriteria(Criteria.where("collectionId").is(collectionId))
+                .skip(skip)
+                .limit(limit);
+        FieldSelection.project(query, attributeNames);
+        return postRepository.find(query);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "post-search-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(Post.class)).createIndex(
+                    new Document("collectionId", 1).append(SEARCH_TEXT_FIELD, "text"),
+                    new IndexOptions().name(INDEX_NAME).defaultLanguage(language));
+            long backfilled = backfill();
+            if (backfilled > 0) {
+                LOGGER.info("Backfilled the search text of {} posts", backfilled);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not initialize the post search index: {}", e.getMessage());
+        }
+    }
+
+    // Computes the search text of posts written before the index existed, in unordered bulk updates.
+    // Until then those posts are not found by a search.
+    long backfill() {
+        long backfilled = 0;
+        for (Collection collection : mongoTemplate.findAll(Collection.class)) {
+            List<String> searchableAttributes = PostValidationPlan.compile(collection.getAttributes()).getSearchableAttributes();
+            Query query = new Query(Criteria.where("collectionId").is(collection.getCollectionId())
+                    .and(SEARCH_TEXT_FIELD).exists(false));
+            query.fields().include("attributes");
+
+            int pending = 0;
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            try (CloseableIterator<Post> posts = mongoTemplate.stream(query, Post.class)) {
+                while (posts.hasNext() && running) {
+                    Post post = posts.next();
+                    Map<String, Object> attributes = post.getAttributes() != null ? post.getAttributes() : Map.of();
+                    bulkOperations.updateOne(new Query(Criteria.where("_id").is(post.get_id()).and(SEARCH_TEXT_FIELD).exists(false)),
+                            new Update().set(SEARCH_TEXT_FIELD, textsFor(searchableAttributes, attributes)));
+                    if (++pending == backfillBatchSize) {
+                        backfilled += bulkOperations.execute().getModifiedCount();
+                        bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                backfilled += bulkOperations.execute().getModifiedCount();
+            }
+            if (!running) {
+                break;
+            }
+        }
+        return backfilled;
+    }
+}
@@ -1,311 +1,639 @@
 package com.backend.cms.service;
 
+import com.backend.cms.codec.PostJsonWriter;
+import com.backend.cms.dto.BulkPostResultDTO;
+import com.backend.cms.dto.PostDTO;
+import com.backend.cms.dto.PostPageDTO;
+import com.backend.cms.dto.RawPostPageDTO;
+import com.backend.cms.dto.SearchHitDTO;
+import com.backend.cms.dto.SearchPageDTO;
+import com.backend.cms.exceptions.ConflictException;
 import com.backend.cms.exceptions.NotFoundException;
 import com.backend.cms.model.*;
 import com.backend.cms.model.Collection;
+import com.backend.cms.query.PostQueryPlan;
 import com.backend.cms.repository.PostRepository;
 import com.backend.cms.request.CreatePostRequest;
 import com.backend.cms.request.EditPostRequest;
+import com.backend.cms.request.PostQueryRequest;
+import com.backend.cms.utils.FieldCleaner;
+import com.backend.cms.utils.FieldSelection;
 import com.backend.cms.utils.Generator;
+import com.backend.cms.utils.PageCursor;
+import com.backend.cms.utils.SearchHighlighter;
+import com.backend.cms.validation.PostValidationPlan;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Service;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 
 @Service
 public class PostService {
 
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
     @Autowired
     private PostRepository postRepository;
 
     @Autowired
     private CollectionService collectionService;
 
+    @Autowired
+    private CollectionSchemaCache collectionSchemaCache;
+
+    @Autowired
+    private PostUniquenessIndex postUniquenessIndex;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
     @Autowired
     private SecurityHelper securityHelper;
 
-    public void createPost(String collectionId, CreatePostRequest request) {
-        Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
-        // Set default values for empty or null attributes
-        setDefaultValuesForAttributes(collection.getAttributes(), request.getAttributes());
+    @Autowired
+    private ObjectMapper objectMapper;
 
-        validatePostAttributes(collectionId, collection.getAttributes(), request.getAttributes());
+    @Value("${posts.page.default-size:50}")
+    private int defaultPageSize = 50;
 
-        Post newPost = createNewPost(collectionId, request);
+    @Value("${posts.page.max-size:200}")
+    private int maxPageSize = 200;
 
-        saveNewPost(newPost);
-    }
+    // Posts written between two flushes of a stream
+    @Value("${posts.stream.flush-interval:100}")
+    private int streamFlushInterval = 100;
 
-    public List<Post> findPostsByCollectionId(String collectionId) {
+    // Posts read from Mongo per cursor batch of a stream
+    @Value("${posts.stream.batch-size:100}")
+    private int streamBatchSize = 100;
 
-        return postRepository.findByCollectionId(collectionId);
-    }
+    @Value("${posts.bulk.max-size:1000}")
+    private int maxBulkSize = 1000;
 
-    public Post findPostFailIfNotFound(String id) {
-        Post post = postRepository.findByPostId(id);
-        if (post == null) throw new NotFoundException();
+    // Batches of at least this size are validated in parallel
+    @Value("${posts.bulk.parallel-threshold:200}")
+    private int bulkParallelThreshold = 200;
 
-        return post;
-    }
+    // Deepest result a search can page to, ranked results are paged with skip
+    @Value("${posts.search.max-results:1000}")
+    private int maxSearchResults = 1000;
 
-    private void setDefaultValuesForAttributes(List<Attribute> collectionAttributes, Map<String, Object> postAttributes) {
-        for (Attribute collectionAttribute : collectionAttributes) {
-            String attributeName = collectionAttribute.getName();
+    // Listings are written as JSON straight from the stored BSON instead of through Post and PostDTO
+    @Value("${posts.json-passthrough.enabled:true}")
+    private boolean jsonPassthroughEnabled = true;
 
-            if (!postAttributes.containsKey(attributeName) || postAttributes.get(attributeName) == null) {
-                setDefaultValueForAttributeType(collectionAttribute, postAttributes);
-            } else if (postAttributes.get(attributeName).toString().isEmpty()) {
-                setDefaultValueForAttributeType(collectionAttribute, postAttributes);
-            }
+    @PostConstruct
+    void validateSettings() {
+        if (streamFlushInterval <= 0) {
+            throw new IllegalArgumentException("posts.stream.flush-interval must be greater than 0");
+        }
+        if (streamBatchSize <= 0) {
+            throw new IllegalArgumentException("posts.stream.batch-size must be greater than 0");
         }
     }
 
+    public void createPost(String collectionId, CreatePostRequest request) {
+        Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
+        PostValidationPlan validationPlan = collectionSchemaCache.getValidationPlan(collection);
 
-    private void setDefaultValueForAttributeType(Attribute collectionAttribute, Map<String, Object> postAttributes) {
-        if (collectionAttribute instanceof DateAttribute) {
-            DateAttribute dateAttribute = (DateAttribute) collectionAttribute;
-            postAttributes.put(collectionAttribute.getName(), dateAttribute.getDefaultValue());
-        } else if (collectionAttribute instanceof TextAttribute) {
-            TextAttribute textAttribute = (TextAttribute) collectionAttribute;
-            postAttributes.put(collectionAttribute.getName(), textAttribute.getDefaultValue());
-        } else if (collectionAttribute instanceof NumberAttribute) {
-            NumberAttribute numberAttribute = (NumberAttribute) collectionAttribute;
-            postAttributes.put(collectionAttribute.getName(), numberAttribute.getDefaultValue());
-        } else if (collectionAttribute instanceof RichTextAttribute) {
-            RichTextAttribute richTextAttribute = (RichTextAttribute) collectionAttribute;
-            postAttributes.put(collectionAttribute.getName(), richTextAttribute.getDefaultValue());
-        }
-    }
+        // Set default values for empty or null attributes
+        validationPlan.applyDefaults(request.getAttributes());
 
+        validationPlan.validate(request.getAttributes(), uniquenessCheck(collectionId, null));
 
-    private void validatePostAttributes(String collectionId, List<Attribute> collectionAttributes, Map<String, Object> postAttributes) {
-        if (postAttributes == null) {
-            throw new IllegalArgumentException("postAttributes cannot be null.");
-        }
+        Post newPost = createNewPost(collectionId, request);
+        validationPlan.convertForStorage(newPost.getAttributes());
+        newPost.setUniqueKeys(postUniquenessIndex.keysFor(collectionId, validationPlan.getUniqueAttributes(), newPost.getAttributes()));
+        newPost.setSearchText(PostSearchIndex.textsFor(validationPlan.getSearchableAttributes(), newPost.getAttributes()));
 
-        boolean foundRequiredAttribute = false;
-        boolean foundNonRequiredAttributeWithNonEmptyValue = false;
+        saveNewPost(newPost);
+    }
 
-        for (Attribute collectionAttribute : collectionAttributes) {
-            String attributeName = collectionAttribute.getName();
-            if (postAttributes.containsKey(attributeName)) {
-                Object attributeValue = postAttributes.get(attributeName);
-                validateAttributeValue(collectionId, collectionAttribute, attributeValue);
+    public BulkPostResultDTO createPosts(String collectionId, List<CreatePostRequest> requests, boolean ordered) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one post is required.");
+        }
+        if (requests.size() > maxBulkSize) {
+            throw new IllegalArgumentException("A bulk request cannot contain more than " + maxBulkSize + " posts.");
+        }
 
-                if (collectionAttribute.isRequired()) {
-                    foundRequiredAttribute = true;
-                } else if (attributeValue != null && !attributeValue.toString().isEmpty()) {
-                    foundNonRequiredAttributeWithNonEmptyValue = true;
+        Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
+        PostValidationPlan validationPlan = collectionSchemaCache.getValidationPlan(collection);
+        int size = requests.size();
+
+        // Validate every post, uniqueness is checked afterwards for the whole batch
+        String[] errors = new String[size];
+        IntStream indexes = IntStream.range(0, size);
+        if (size >= bulkParallelThreshold) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> errors[i] = validateBulkPost(validationPlan, requests.get(i)));
+
+        Post[] posts = new Post[size];
+        Set<String> batchKeys = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (errors[i] == null) {
+                posts[i] = createNewPost(collectionId, requests.get(i));
+                validationPlan.convertForStorage(posts[i].getAttributes());
+                posts[i].setUniqueKeys(postUniquenessIndex.keysFor(collectionId, validationPlan.getUniqueAttributes(), posts[i].getAttributes()));
+                posts[i].setSearchText(PostSearchIndex.textsFor(validationPlan.getSearchableAttributes(), posts[i].getAttributes()));
+                if (posts[i].getUniqueKeys() != null) {
+                    batchKeys.addAll(posts[i].getUniqueKeys());
                 }
             }
         }
 
-        if (!foundRequiredAttribute && !foundNonRequiredAttributeWithNonEmptyValue) {
-            throw new IllegalArgumentException("A post cannot be created with empty data");
+        Set<String> takenKeys = postUniquenessIndex.findTakenKeys(batchKeys);
+        Set<String> claimedKeys = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (posts[i] == null || posts[i].getUniqueKeys() == null) {
+                continue;
+            }
+            String duplicateKey = findDuplicateKey(posts[i].getUniqueKeys(), takenKeys, claimedKeys);
+            if (duplicateKey != null) {
+                errors[i] = "Attribute '" + PostUniquenessIndex.attributeNameOf(duplicateKey) + "' must have a unique value.";
+                posts[i] = null;
+            } else {
+                claimedKeys.addAll(posts[i].getUniqueKeys());
+            }
         }
-    }
 
+        boolean[] skipped = new boolean[size];
+        if (ordered) {
+            skipAfterFirstFailure(errors, posts, skipped, 0);
+        }
+        insertBulkPosts(posts, errors, skipped, ordered);
 
-    private void validateAttributeValue(String collectionId, Attribute collectionAttribute, Object attributeValue) {
-        Object valueToValidate;
+        return toBulkResult(posts, errors, skipped);
+    }
 
-        if (collectionAttribute.isRequired() && attributeValue.toString().isEmpty()) {
-            throw new IllegalArgumentException("Required attribute " + collectionAttribute.getName() + " cannot be null");
-        } else {
+    private String validateBulkPost(PostValidationPlan validationPlan, CreatePostRequest request) {
+        if (request == null || request.getAttributes() == null) {
+            return "postAttributes cannot be null.";
+        }
+        try {
+            validationPlan.applyDefaults(request.getAttributes());
+            validationPlan.validate(request.getAttributes(), (attributeName, attributeValue) -> false);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+    }
 
-            valueToValidate = (attributeValue != null) ? attributeValue : getDefaultAttributeValue(collectionAttribute);
+    private String findDuplicateKey(List<String> keys, Set<String> takenKeys, Set<String> claimedKeys) {
+        for (String key : keys) {
+            if (takenKeys.contains(key) || claimedKeys.contains(key)) {
+                return key;
+            }
         }
+        return null;
+    }
 
-        // Skip validation for non-required attributes with default values
-        if (!collectionAttribute.isRequired() && valueToValidate.equals(getDefaultAttributeValue(collectionAttribute))) {
+    private void skipAfterFirstFailure(String[] errors, Post[] posts, boolean[] skipped, int from) {
+        for (int i = from; i < errors.length; i++) {
+            if (errors[i] != null) {
+                for (int j = i + 1; j < errors.length; j++) {
+                    if (errors[j] == null) {
+                        skipped[j] = true;
+                        posts[j] = null;
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void insertBulkPosts(Post[] posts, String[] errors, boolean[] skipped, boolean ordered) {
+        List<Post> toInsert = new ArrayList<>();
+        List<Integer> insertIndexes = new ArrayList<>();
+        for (int i = 0; i < posts.length; i++) {
+            if (posts[i] != null) {
+                toInsert.add(posts[i]);
+                insertIndexes.add(i);
+            }
+        }
+        if (toInsert.isEmpty()) {
             return;
         }
 
-        switch (collectionAttribute.getContentType()) {
-            case TEXT:
-                validateTextAttribute(collectionId, (TextAttribute) collectionAttribute, valueToValidate);
-                break;
-            case NUMBER:
-                validateNumberAttribute((NumberAttribute) collectionAttribute, valueToValidate);
-                break;
-            case RICHTEXT:
-                validateRichTextAttribute((RichTextAttribute) collectionAttribute, valueToValidate);
-                break;
-            case DATE:
-                validateDateAttribute((DateAttribute) collectionAttribute, valueToValidate);
-                break;
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(ordered ? BulkOperations.BulkMode.ORDERED : BulkOperations.BulkMode.UNORDERED, Post.class);
+        bulkOperations.insert(toInsert);
+        try {
+            bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            // Posts written concurrently by other requests can still collide on the unique index
+            int firstFailed = posts.length;
+            for (BulkWriteError error : e.getErrors()) {
+                int index = insertIndexes.get(error.getIndex());
+                errors[index] = error.getCode() == DUPLICATE_KEY_ERROR
+                        ? "A post with the same unique attribute value already exists."
+                        : error.getMessage();
+                posts[index] = null;
+                firstFailed = Math.min(firstFailed, index);
+            }
+            if (ordered) {
+                skipAfterFirstFailure(errors, posts, skipped, firstFailed);
+            }
         }
     }
 
+    private BulkPostResultDTO toBulkResult(Post[] posts, String[] errors, boolean[] skipped) {
+        BulkPostResultDTO result = new BulkPostResultDTO();
+        for (int i = 0; i < posts.length; i++) {
+            if (posts[i] != null) {
+                result.getResults().add(new BulkPostResultDTO.ItemResult(i, posts[i].getPostId(), BulkPostResultDTO.Status.CREATED, null));
+                result.setCreated(result.getCreated() + 1);
+            } else if (skipped[i]) {
+                result.getResults().add(new BulkPostResultDTO.ItemResult(i, null, BulkPostResultDTO.Status.SKIPPED, "Not inserted because an earlier post failed."));
+                result.setSkipped(result.getSkipped() + 1);
+            } else {
+                result.getResults().add(new BulkPostResultDTO.ItemResult(i, null, BulkPostResultDTO.Status.FAILED, errors[i]));
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+        return result;
+    }
 
-    private Object getDefaultAttributeValue(Attribute collectionAttribute) {
+    public List<Post> findPostsByCollectionId(String collectionId) {
 
-        switch (collectionAttribute.getContentType()) {
-            case TEXT:
-            case DATE:
-            case RICHTEXT:
-                return "";
-            case NUMBER:
-                return "";
-            default:
-                return null;
-        }
+        return postRepository.findByCollectionId(collectionId);
     }
 
-    private void validateTextAttribute(String collectionId, TextAttribute collectionAttribute, Object attributeValue) {
+    // attributeNames limits the returned attributes, null returns all of them
+    public PostPageDTO findPostPageByCollectionId(String collectionId, String cursor, Integer size, List<String> attributeNames) {
+        int pageSize = resolvePageSize(size);
+        ObjectId lastId = (cursor == null || cursor.isEmpty()) ? null : PageCursor.decode(cursor);
+        // Caches the schema first, the PostCodec reads the attributes in its layout
+        findValidationPlan(collectionId);
 
-        String textValue = attributeValue.toString();
+        // Fetch one extra post to know whether a next page exists without counting
+        List<Post> posts = postRepository.findPage(collectionId, lastId, pageSize + 1, attributeNames);
 
-        if (textValue.length() < collectionAttribute.getMinimumLength()) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a minimum length of " + collectionAttribute.getMinimumLength());
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            nextCursor = PageCursor.encode(posts.get(pageSize - 1).get_id());
         }
 
-        Integer maximumLength = collectionAttribute.getMaximumLength();
-        if (maximumLength != null && textValue.length() > maximumLength) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a maximum length of " + maximumLength);
-        }
+        formatForOutput(collectionId, posts);
+        List<PostDTO> postDTOs = posts.stream().map(PostDTO::fromPost).collect(Collectors.toList());
+        return new PostPageDTO(postDTOs, nextCursor);
+    }
 
-        if (collectionAttribute.isUnique() && isAttributeValueNotUnique(collectionId, collectionAttribute.getName(), textValue)) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a unique value.");
-        }
+    public boolean isJsonPassthroughEnabled() {
+        return jsonPassthroughEnabled;
     }
 
-    private void validateRichTextAttribute(RichTextAttribute collectionAttribute, Object attributeValue) {
+    public int getMaxBulkSize() {
+        return maxBulkSize;
+    }
 
-        String richTextValue = attributeValue.toString();
+    // Same page as findPostPageByCollectionId, the posts are kept as BSON and serialized by PostJsonWriter
+    public RawPostPageDTO findRawPostPageByCollectionId(String collectionId, String cursor, Integer size, List<String> attributeNames) {
+        int pageSize = resolvePageSize(size);
+        ObjectId lastId = (cursor == null || cursor.isEmpty()) ? null : PageCursor.decode(cursor);
+        PostValidationPlan validationPlan = findValidationPlan(collectionId);
 
-        if (richTextValue.length() < collectionAttribute.getMinimumLength()) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a minimum length of " + collectionAttribute.getMinimumLength());
-        }
+        List<RawBsonDocument> posts = postRepository.findRawPage(collectionId, lastId, pageSize + 1, attributeNames);
 
-        Integer maximumLength = collectionAttribute.getMaximumLength();
-        if (maximumLength != null && richTextValue.length() > maximumLength) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a maximum length of " + maximumLength);
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            nextCursor = PageCursor.encode(posts.get(pageSize - 1).getObjectId("_id").getValue());
         }
-
+        return new RawPostPageDTO(posts, nextCursor, outputValue(validationPlan));
     }
 
-    private void validateNumberAttribute(NumberAttribute collectionAttribute, Object attributeValue) {
+    // Writes every post of the collection as one JSON line, reading them through a Mongo cursor
+    public void streamPostsByCollectionId(String collectionId, List<String> attributeNames, OutputStream outputStream) throws IOException {
+        Query query = new Query(Criteria.where("collectionId").is(collectionId))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(streamBatchSize);
+        FieldSelection.project(query, attributeNames);
 
-        int attributeIntValue = ((Number) attributeValue).intValue();
+        PostValidationPlan validationPlan = findValidationPlan(collectionId);
+        if (jsonPassthroughEnabled) {
+            streamRawPosts(query, validationPlan, outputStream);
+            return;
+        }
+        try (CloseableIterator<Post> posts = postRepository.stream(query)) {
+            int written = 0;
+            while (posts.hasNext()) {
+                Post post = posts.next();
+                if (validationPlan != null && post.getAttributes() != null) {
+                    validationPlan.formatForOutput(post.getAttributes());
+                }
+                outputStream.write(objectMapper.writeValueAsBytes(PostDTO.fromPost(post)));
+                outputStream.write('\n');
 
-        if (attributeIntValue < collectionAttribute.getMinimumValue()) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a minimum value of " + collectionAttribute.getMinimumValue());
+                if (++written % streamFlushInterval == 0) {
+                    outputStream.flush();
+                }
+            }
         }
+        outputStream.flush();
+    }
 
-        Integer maximumValue = collectionAttribute.getMaximumValue();
-        if (maximumValue != null && attributeIntValue > maximumValue) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must have a maximum value of " + maximumValue);
+    private void streamRawPosts(Query query, PostValidationPlan validationPlan, OutputStream outputStream) throws IOException {
+        BiFunction<String, Object, Object> outputValue = outputValue(validationPlan);
+        try (CloseableIterator<RawBsonDocument> posts = postRepository.streamRaw(query);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // The response stream is closed by the servlet container, lines are separated by hand
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            int written = 0;
+            while (posts.hasNext()) {
+                PostJsonWriter.write(posts.next(), generator, outputValue);
+                generator.writeRaw('\n');
+
+                if (++written % streamFlushInterval == 0) {
+                    generator.flush();
+                }
+            }
         }
+        outputStream.flush();
     }
 
-    private void validateDateAttribute(DateAttribute collectionAttribute, Object attributeValue) {
+    // Filtered and sorted page of posts, compiled through the cached query plan of the query shape
+    public PostPageDTO queryPosts(String collectionId, PostQueryRequest request) {
+        Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
+        List<PostQueryRequest.Filter> filters = PostQueryPlan.normalize(request.getFilters());
+        PostQueryPlan queryPlan = collectionSchemaCache.getQueryPlan(collection, PostQueryPlan.shapeOf(filters, request.getSort()),
+                () -> PostQueryPlan.compile(collection.getAttributes(), filters, request.getSort()));
+
+        int pageSize = resolvePageSize(request.getSize());
+        ObjectId lastId = null;
+        Object lastSortValue = null;
+        if (request.getCursor() != null && !request.getCursor().isEmpty()) {
+            if (queryPlan.isSorted()) {
+                PageCursor.Keyset keyset = PageCursor.decodeKeyset(request.getCursor());
+                lastId = keyset.lastId();
+                lastSortValue = keyset.lastSortValue();
+            } else {
+                lastId = PageCursor.decode(request.getCursor());
+            }
+        }
 
-        String dateValue = attributeValue.toString();
+        Query query = queryPlan.toQuery(collectionId, filters, lastId, lastSortValue, pageSize + 1);
+        List<String> attributeNames = request.getFields() != null ? FieldSelection.parse(String.join(",", request.getFields())) : null;
+        List<String> projectedNames = attributeNames;
+        if (attributeNames != null && queryPlan.isSorted() && !attributeNames.contains(queryPlan.getSortAttribute())) {
+            // The sort value is needed for the cursor even when it is not returned
+            projectedNames = new ArrayList<>(attributeNames);
+            projectedNames.add(queryPlan.getSortAttribute());
+        }
+        FieldSelection.project(query, projectedNames);
+        List<Post> posts = postRepository.find(query);
+
+        String nextCursor = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            Post lastPost = posts.get(pageSize - 1);
+            nextCursor = queryPlan.isSorted()
+                    ? PageCursor.encode(lastPost.get_id(), queryPlan.sortValueOf(lastPost))
+                    : PageCursor.encode(lastPost.get_id());
+        }
+        if (projectedNames != attributeNames) {
+            posts.stream()
+                    .filter(post -> post.getAttributes() != null)
+                    .forEach(post -> post.getAttributes().remove(queryPlan.getSortAttribute()));
+        }
+
+        formatForOutput(collectionId, posts);
+        List<PostDTO> postDTOs = posts.stream().map(PostDTO::fromPost).collect(Collectors.toList());
+        return new PostPageDTO(postDTOs, nextCursor);
+    }
 
-        if (attributeValue.toString().isEmpty()) {
-            dateValue = collectionAttribute.getDefaultValue();
+    // Full-text search over the TEXT and RICHTEXT attributes, most relevant first
+    public SearchPageDTO searchPosts(String collectionId, String search, Integer page, Integer size, List<String> attributeNames) {
+        Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
+        if (search == null || search.isBlank()) {
+            throw new IllegalArgumentException("A search needs at least one term");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page cannot be negative");
+        }
+        int pageSize = resolvePageSize(size);
+        long skip = (long) pageNumber * pageSize;
+        if (skip + pageSize > maxSearchResults) {
+            throw new IllegalArgumentException("Search results are limited to the first " + maxSearchResults + ", refine the search instead");
         }
 
-        try {
-            SimpleDateFormat dateFormat;
-
-            switch (collectionAttribute.getDateType()) {
-                case DATE:
-                    dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-                    break;
-                case DATETIME:
-                    dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm");
-                    break;
-                case TIME:
-                    dateFormat = new SimpleDateFormat("HH:mm");
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid DateType specified for attribute '" + collectionAttribute.getName() + "'");
+        List<Post> posts = postSearchIndex.search(collectionId, search, (int) skip, pageSize + 1, attributeNames);
+        Integer nextPage = null;
+        if (posts.size() > pageSize) {
+            posts = posts.subList(0, pageSize);
+            nextPage = pageNumber + 1;
+        }
+
+        PostValidationPlan validationPlan = collectionSchemaCache.getValidationPlan(collection);
+        List<String> terms = SearchHighlighter.terms(search);
+        List<SearchHitDTO> hits = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            Map<String, String> highlights = new LinkedHashMap<>();
+            if (post.getAttributes() != null) {
+                for (String attributeName : validationPlan.getSearchableAttributes()) {
+                    Object value = post.getAttributes().get(attributeName);
+                    String snippet = value != null ? SearchHighlighter.highlight(value.toString(), terms) : null;
+                    if (snippet != null) {
+                        highlights.put(attributeName, snippet);
+                    }
+                }
+                validationPlan.formatForOutput(post.getAttributes());
             }
+            hits.add(new SearchHitDTO(PostDTO.fromPost(post), post.getScore(), highlights));
+        }
+        return new SearchPageDTO(hits, nextPage);
+    }
 
-            dateFormat.setLenient(false);
-            Date parsedDate = dateFormat.parse(dateValue);
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, maxPageSize);
+    }
 
-            dateValue = dateFormat.format(parsedDate);
+    public Post findPostFailIfNotFound(String id) {
+        Post post = postRepository.findByPostId(id);
+        if (post == null) throw new NotFoundException();
 
-        } catch (ParseException e) {
-            throw new IllegalArgumentException("Attribute '" + collectionAttribute.getName() + "' must be a valid format.");
-        }
+        formatForOutput(post.getCollectionId(), List.of(post));
+        return post;
     }
 
-    private boolean isAttributeValueNotUnique(String collectionId, String attributeName, String attributeValue) {
+    public Post findPostFailIfNotFound(String id, List<String> attributeNames) {
+        if (attributeNames == null) {
+            return findPostFailIfNotFound(id);
+        }
+        Post post = postRepository.findByPostId(id, attributeNames);
+        if (post == null) throw new NotFoundException();
 
-        List<Post> allPosts = postRepository.findByCollectionAndAttributeNameAndValue(collectionId, attributeName, ".*" + attributeValue.trim() + ".*");
-        // Check if the attribute value is present in the existing posts
-        for (Post post : allPosts) {
-            for (Map.Entry<String, Object> entry : post.getAttributes().entrySet()) {
-                String postAttributeName = entry.getKey();
-                Object postAttributeValue = entry.getValue();
+        formatForOutput(post.getCollectionId(), List.of(post));
+        return post;
+    }
 
-                // Compare ignoring case and white spaces
-                if (attributeName.equals(postAttributeName) && areAttributeValuesEqual(attributeValue, postAttributeValue)) {
-                    // Value is already present in the existing posts for this attribute
-                    return true;
-                }
+    // Dates are stored as BSON dates and returned in the format of their DateType
+    private void formatForOutput(String collectionId, List<Post> posts) {
+        if (posts.isEmpty()) {
+            return;
+        }
+        PostValidationPlan validationPlan = findValidationPlan(collectionId);
+        if (validationPlan == null) {
+            return;
+        }
+        for (Post post : posts) {
+            if (post.getAttributes() != null) {
+                validationPlan.formatForOutput(post.getAttributes());
             }
         }
+    }
 
-        return false;
+    private static BiFunction<String, Object, Object> outputValue(PostValidationPlan validationPlan) {
+        return validationPlan != null ? validationPlan::toOutputValue : (attributeName, value) -> value;
     }
 
-    private boolean areAttributeValuesEqual(String value1, Object value2) {
-        if (value2 instanceof String) {
-            // Compare ignoring case and white spaces after trimming
-            return value1.trim().equalsIgnoreCase(((String) value2).trim());
+    private PostValidationPlan findValidationPlan(String collectionId) {
+        try {
+            Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
+            return collection != null ? collectionSchemaCache.getValidationPlan(collection) : null;
+        } catch (NotFoundException e) {
+            return null;
         }
-
-        return false;
     }
 
+    private PostValidationPlan.UniquenessCheck uniquenessCheck(String collectionId, String excludedPostId) {
+        return (attributeName, attributeValue) -> postUniquenessIndex.isTaken(collectionId, attributeName, attributeValue, excludedPostId);
+    }
 
     private Post createNewPost(String collectionId, CreatePostRequest request) {
         Post newPost = new Post();
         newPost.setUserId(securityHelper.getCurrentUserId());
         newPost.setPostId(Generator.generateId("p"));
         newPost.setCollectionId(collectionId);
+        newPost.setVersion(0L);
 
-        Map<String, Object> trimmedAttributes = new HashMap<>();
-        for (Map.Entry<String, Object> entry : request.getAttributes().entrySet()) {
-            String attributeName = entry.getKey();
-            Object attributeValue = entry.getValue();
-
-            if (attributeValue instanceof String) {
-                trimmedAttributes.put(attributeName, ((String) attributeValue).trim());
-            } else {
-                trimmedAttributes.put(attributeName, attributeValue);
-            }
-        }
-
-        newPost.setAttributes(trimmedAttributes);
+        newPost.setAttributes(FieldCleaner.trimAttributes(request.getAttributes()));
 
         return newPost;
     }
 
     private void saveNewPost(Post newPost) {
-        postRepository.save(newPost);
+        try {
+            postRepository.save(newPost);
+        } catch (DuplicateKeyException e) {
+            // Another post with the same unique value was written since the validation
+            throw new IllegalArgumentException("A post with the same unique attribute value already exists.");
+        }
     }
 
+    // Applies the changed attributes with one atomic $set instead of rewriting the whole post
     public void updatePost(String collectionId, String postId, EditPostRequest request) {
-        Post existingPost = findPostFailIfNotFound(postId);
         Collection collection = collectionService.findCollectionFailIfNotFound(collectionId);
         Map<String, Object> updatedAttributes = request.getAttributes();
-        if (updatedAttributes != null && !updatedAttributes.isEmpty()) {
+        if (updatedAttributes == null || updatedAttributes.isEmpty()) {
+            if (!postExists(collectionId, postId)) throw new NotFoundException();
+            return;
+        }
 
-            validatePostAttributes(collectionId, collection.getAttributes(), request.getAttributes());
-            existingPost.getAttributes().putAll(updatedAttributes);
+        PostValidationPlan validationPlan = collectionSchemaCache.getValidationPlan(collection);
+        for (String attributeName : updatedAttributes.keySet()) {
+            if (!validationPlan.hasAttribute(attributeName)) {
+                throw new IllegalArgumentException("Attribute '" + attributeName + "' does not exist in the collection.");
+            }
         }
+        validationPlan.validate(updatedAttributes, uniquenessCheck(collectionId, postId));
+        validationPlan.convertForStorage(updatedAttributes);
+
+        Criteria criteria = Criteria.where("postId").is(postId).and("collectionId").is(collectionId);
+        if (request.getVersion() != null) {
+            criteria.and("version").is(request.getVersion());
+        }
+        Update update = new Update().inc("version", 1);
+        updatedAttributes.forEach((attributeName, attributeValue) -> update.set("attributes." + attributeName, attributeValue));
+
+        boolean changesUniqueAttribute = changesAnyOf(validationPlan.getUniqueAttributes(), updatedAttributes);
+        boolean changesSearchableAttribute = changesAnyOf(validationPlan.getSearchableAttributes(), updatedAttributes);
+        if (changesUniqueAttribute || changesSearchableAttribute) {
+            // The keys and search texts cover every unique and searchable attribute, so the other values have to be read first
+            Post existingPost = findPostFailIfNotFound(postId);
+            Map<String, Object> mergedAttributes = existingPost.getAttributes() != null ? new HashMap<>(existingPost.getAttributes()) : new HashMap<>();
+            mergedAttributes.putAll(updatedAttributes);
+
+            if (changesUniqueAttribute) {
+                List<String> uniqueKeys = postUniquenessIndex.keysFor(collectionId, validationPlan.getUniqueAttributes(), mergedAttributes);
+
+                // Only apply if no other update changed the keys in the meantime
+                criteria.and("uniqueKeys").is(existingPost.getUniqueKeys());
+                if (uniqueKeys != null) {
+                    update.set("uniqueKeys", uniqueKeys);
+                } else {
+                    update.unset("uniqueKeys");
+                }
+            }
+            if (changesSearchableAttribute) {
+                // Set as a whole, the stored texts may predate attributes made searchable since. Only applied
+                // to the version read, so a concurrent change of another searchable attribute is not lost.
+                if (request.getVersion() == null) {
+                    criteria.and("version").is(existingPost.getVersion());
+                }
+                update.set("searchText", PostSearchIndex.textsFor(validationPlan.getSearchableAttributes(), mergedAttributes));
+            }
+        }
+
+        UpdateResult result;
+        try {
+            result = mongoTemplate.updateFirst(new Query(criteria), update, Post.class);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("A post with the same unique attribute value already exists.");
+        }
+
+        if (result.getMatchedCount() == 0) {
+            if (!postExists(collectionId, postId)) throw new NotFoundException();
+            throw new ConflictException("The post was modified by another request, reload it and try again.");
+        }
+    }
+
+    private static boolean changesAnyOf(List<String> attributeNames, Map<String, Object> updatedAttributes) {
+        for (String attributeName : attributeNames) {
+            if (updatedAttributes.containsKey(attributeName)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        saveNewPost(existingPost);
+    private boolean postExists(String collectionId, String postId) {
+        return mongoTemplate.exists(new Query(Criteria.where("postId").is(postId).and("collectionId").is(collectionId)), Post.class);
     }
 
 }
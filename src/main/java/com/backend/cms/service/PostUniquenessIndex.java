@@ -0,0 +1,195 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import com.backend.cms.model.Post;
+import com.backend.cms.validation.PostValidationPlan;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps the normalized values of unique attributes in Post.uniqueKeys, backed by a unique sparse index,
+// so uniqueness is a single indexed lookup and concurrent duplicates are rejected by Mongo on write.
+// The index is created, and the keys of older posts are backfilled, on a background thread after startup.
+// Until the backfill reaches a post its unique values are not enforced, which is logged per collection.
+@Component
+public class PostUniquenessIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostUniquenessIndex.class);
+
+    static final String UNIQUE_KEYS_FIELD = "uniqueKeys";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${posts.uniqueness.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Values are compared ignoring case and surrounding white space
+    public static String key(String collectionId, String attributeName, String value) {
+        return collectionId + "|" + attributeName + "|" + value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String attributeNameOf(String key) {
+        return key.split("\\|", 3)[1];
+    }
+
+    // Returns the keys of the post, or null when it has no unique values so the field is left out of the sparse index
+    public List<String> keysFor(String collectionId, List<String> uniqueAttributes, Map<String, Object> attributes) {
+        List<String> keys = null;
+        for (String attributeName : uniqueAttributes) {
+            Object value = attributes.get(attributeName);
+            if (value == null || value.toString().trim().isEmpty()) {
+                continue;
+            }
+            if (keys == null) {
+                keys = new ArrayList<>(uniqueAttributes.size());
+            }
+            keys.add(key(collectionId, attributeName, value.toString()));
+        }
+        return keys;
+    }
+
+    public boolean isTaken(String collectionId, String attributeName, String value, String excludedPostId) {
+        Criteria criteria = Criteria.where(UNIQUE_KEYS_FIELD).is(key(collectionId, attributeName, value));
+        if (excludedPostId != null) {
+            criteria = criteria.and("postId").ne(excludedPostId);
+        }
+        return mongoTemplate.exists(new Query(criteria), Post.class);
+    }
+
+    // Returns the subset of the given keys already used by stored posts, with a single query
+    public Set<String> findTakenKeys(Set<String> keys) {
+        Set<String> taken = new HashSet<>();
+        if (keys.isEmpty()) {
+            return taken;
+        }
+
+        Query query = new Query(Criteria.where(UNIQUE_KEYS_FIELD).in(keys));
+        query.fields().include(UNIQUE_KEYS_FIELD);
+        for (Post post : mongoTemplate.find(query, Post.class)) {
+            for (String key : post.getUniqueKeys()) {
+                if (keys.contains(key)) {
+                    taken.add(key);
+                }
+            }
+        }
+        return taken;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "post-uniqueness-index");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            mongoTemplate.indexOps(Post.class).ensureIndex(new Index(UNIQUE_KEYS_FIELD, Sort.Direction.ASC).unique().sparse());
+            backfill();
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not initialize the post uniqueness index: {}", e.getMessage());
+        }
+    }
+
+    // Computes the keys of posts written before the index existed, in unordered bulk updates
+    void backfill() {
+        for (Collection collection : mongoTemplate.findAll(Collection.class)) {
+            List<String> uniqueAttributes = PostValidationPlan.compile(collection.getAttributes()).getUniqueAttributes();
+            if (uniqueAttributes.isEmpty()) {
+                continue;
+            }
+
+            String collectionId = collection.getCollectionId();
+            // Posts without any unique value never get keys and need none
+            Criteria[] hasUniqueValue = uniqueAttributes.stream()
+                    .map(attributeName -> Criteria.where("attributes." + attributeName).nin(null, ""))
+                    .toArray(Criteria[]::new);
+            Query query = new Query(Criteria.where("collectionId").is(collectionId)
+                    .and(UNIQUE_KEYS_FIELD).exists(false)
+                    .orOperator(hasUniqueValue));
+            long unchecked = mongoTemplate.count(query, Post.class);
+            if (unchecked == 0) {
+                continue;
+            }
+            LOGGER.warn("Unique attributes of {} posts of collection {} are not enforced until their keys are backfilled", unchecked, collectionId);
+
+            query.fields().include("postId").include("attributes");
+            List<Post> batch = new ArrayList<>(backfillBatchSize);
+            try (CloseableIterator<Post> posts = mongoTemplate.stream(query, Post.class)) {
+                while (posts.hasNext() && running) {
+                    batch.add(posts.next());
+                    if (batch.size() == backfillBatchSize) {
+                        writeKeys(collectionId, uniqueAttributes, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!running) {
+                return;
+            }
+            writeKeys(collectionId, uniqueAttributes, batch);
+            LOGGER.info("Unique attributes of collection {} are enforced for every post", collectionId);
+        }
+    }
+
+    private void writeKeys(String collectionId, List<String> uniqueAttributes, List<Post> batch) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        List<Post> updated = new ArrayList<>(batch.size());
+        for (Post post : batch) {
+            Map<String, Object> attributes = post.getAttributes() != null ? post.getAttributes() : Map.of();
+            List<String> keys = keysFor(collectionId, uniqueAttributes, attributes);
+            if (keys == null) {
+                continue;
+            }
+            bulkOperations.updateOne(new Query(Criteria.where("_id").is(post.get_id()).and(UNIQUE_KEYS_FIELD).exists(false)),
+                    new Update().set(UNIQUE_KEYS_FIELD, keys));
+            updated.add(post);
+        }
+        if (updated.isEmpty()) {
+            return;
+        }
+        try {
+            bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            // The other updates of an unordered bulk are still applied
+            for (BulkWriteError error : e.getErrors()) {
+                LOGGER.warn("Post {} has a unique value already used by another post: {}", updated.get(error.getIndex()).getPostId(), error.getMessage());
+            }
+        }
+    }
+}
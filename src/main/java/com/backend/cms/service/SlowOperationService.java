@@ -0,0 +1,51 @@
+package com.backend.cms.service;
+
+import com.backend.cms.dto.SlowOperationDTO;
+import com.backend.cms.exceptions.NotFoundException;
+import com.backend.cms.metrics.SlowOperationRecorder;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class SlowOperationService {
+
+    private static final Set<String> VERBOSITIES = Set.of("queryPlanner", "executionStats", "allPlansExecution");
+
+    @Autowired
+    private SlowOperationRecorder slowOperationRecorder;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public List<SlowOperationDTO> findSlowOperations() {
+        return slowOperationRecorder.getOperations().stream()
+                .map(SlowOperationRecorder.SlowOperation::operation)
+                .collect(Collectors.toList());
+    }
+
+    // Runs explain for the recorded query, executionStats runs the query again to report what it read.
+    // The values of the query are redacted from the output like in the recorded shape.
+    public Map<String, Object> explain(long id, String verbosity) {
+        if (!VERBOSITIES.contains(verbosity)) {
+            throw new IllegalArgumentException("Verbosity must be one of " + VERBOSITIES);
+        }
+        SlowOperationRecorder.SlowOperation operation = slowOperationRecorder.findOperation(id);
+        if (operation == null) {
+            throw new NotFoundException();
+        }
+        if (operation.explainCommand() == null) {
+            throw new IllegalArgumentException("Only reads, updates and deletes can be explained");
+        }
+        BsonDocument explain = mongoTemplate.getMongoDatabaseFactory().getMongoDatabase(operation.database())
+                .runCommand(new Document("explain", operation.explainCommand()).append("verbosity", verbosity), BsonDocument.class);
+        return SlowOperationRecorder.redactExplain(explain);
+    }
+}
@@ -0,0 +1,123 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Attribute;
+import com.backend.cms.model.Collection;
+import com.backend.cms.model.ContentType;
+import com.backend.cms.model.Post;
+import com.backend.cms.validation.PostValidationPlan;
+import org.bson.BsonType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+// Converts DATE and NUMBER values written as text before they were stored typed, on a background
+// thread after startup. Empty values become null, values that match the attribute are rewritten in
+// unordered bulk updates, the others are left as they are and logged.
+@Component
+public class TypedValueMigration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TypedValueMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${posts.migration.typed-values.enabled:true}")
+    private boolean enabled;
+
+    @Value("${posts.migration.typed-values.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "typed-value-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            long migrated = 0;
+            for (Collection collection : mongoTemplate.findAll(Collection.class)) {
+                PostValidationPlan validationPlan = PostValidationPlan.compile(collection.getAttributes());
+                for (Attribute attribute : collection.getAttributes()) {
+                    if (!running) {
+                        return;
+                    }
+                    if (attribute.getContentType() == ContentType.DATE || attribute.getContentType() == ContentType.NUMBER) {
+                        migrated += migrate(collection.getCollectionId(), attribute.getName(), validationPlan);
+                    }
+                }
+            }
+            if (migrated > 0) {
+                LOGGER.info("Converted {} post values to their typed representation", migrated);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Typed value migration failed: {}", e.getMessage());
+        }
+    }
+
+    long migrate(String collectionId, String attributeName, PostValidationPlan validationPlan) {
+        String path = "attributes." + attributeName;
+        long migrated = mongoTemplate.updateMulti(new Query(Criteria.where("collectionId").is(collectionId).and(path).is("")),
+                new Update().set(path, null), Post.class).getModifiedCount();
+
+        Query query = new Query(Criteria.where("collectionId").is(collectionId).and(path).type(BsonType.STRING.getValue()).ne(""));
+        query.fields().include(path);
+
+        int pending = 0;
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        try (CloseableIterator<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            while (posts.hasNext() && running) {
+                Post post = posts.next();
+                Object value = post.getAttributes().get(attributeName);
+                Object storedValue;
+                try {
+                    storedValue = validationPlan.toStoredValue(attributeName, value);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Post {} keeps its invalid value of attribute '{}': {}", post.get_id(), attributeName, value);
+                    continue;
+                }
+
+                // Only replaces the value when it was not changed since it was read
+                bulkOperations.updateOne(new Query(Criteria.where("_id").is(post.get_id()).and(path).is(value)),
+                        new Update().set(path, storedValue));
+                if (++pending == batchSize) {
+                    migrated += bulkOperations.execute().getModifiedCount();
+                    bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            migrated += bulkOperations.execute().getModifiedCount();
+        }
+        return migrated;
+    }
+}
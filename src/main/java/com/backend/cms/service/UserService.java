@@ -8,6 +8,8 @@ import com.backend.cms.repository.UserRepository;
 import com.backend.cms.request.CreateUserRequest;
 import com.backend.cms.request.SetPasswordRequest;
 import com.backend.cms.request.UpdateUserRequest;
+import com.backend.cms.security.jwt.JwtRevocationList;
+import com.backend.cms.security.jwt.JwtTokenCache;
 import com.backend.cms.utils.FieldCleaner;
 import com.backend.cms.utils.Generator;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private JwtRevocationList jwtRevocationList;
+
     public User findUserFailIfNotFound(String id) {
         User user = userRepository.findByUserId(id);
         if (user == null) throw new NotFoundException();
@@ -32,20 +40,25 @@ public class UserService {
         return user;
     }
 
+    // Generated ids are unique without a lookup
     public String findNewId() {
-        String id;
-        do {
-            id = Generator.generateId("u");
-        } while (userRepository.findByUserId(id) != null);
-        return id;
+        return Generator.generateId("u");
     }
 
     public void save(User user) {
         if (user != null) {
             userRepository.save(user);
+            // Tokens verified for the old user state must not keep its role or password
+            jwtTokenCache.invalidateUser(user.getUserId());
         }
     }
 
+    public void deleteUser(User user) {
+        userRepository.delete(user);
+        jwtTokenCache.invalidateUser(user.getUserId());
+        jwtRevocationList.revokeUser(user.getUserId());
+    }
+
     public String encryptPassword(String password) {
         return passwordEncoder.encode(password);
     }
@@ -54,10 +67,15 @@ public class UserService {
         user.setFirstName(FieldCleaner.cleanField(request.getFirstName()));
         user.setLastName(FieldCleaner.cleanField(request.getLastName()));
         user.setEmail(FieldCleaner.cleanField(request.getEmail()));
+        boolean userTypeChanged = user.getUserType() != request.getUserType();
         user.setUserType(request.getUserType());
 
-        // Save the updated user
+        // Save the updated user, which also drops its cached tokens
         save(user);
+        if (userTypeChanged) {
+            // Stateless tokens carry the old role as a claim
+            jwtRevocationList.revokeUser(user.getUserId());
+        }
     }
 
     public List<User> findAllUsers() {
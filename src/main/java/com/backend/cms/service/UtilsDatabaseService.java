@@ -1,5 +1,6 @@
 package com.backend.cms.service;
 
+import com.backend.cms.security.jwt.JwtTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
@@ -12,6 +13,9 @@ public class UtilsDatabaseService {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
     public void resetTestDatabase() {
 
         // Drop collections for cleanup
@@ -19,5 +23,6 @@ public class UtilsDatabaseService {
         for (String collectionName : collectionNames) {
             mongoTemplate.dropCollection(collectionName);
         }
+        jwtTokenCache.invalidateAll();
     }
 }
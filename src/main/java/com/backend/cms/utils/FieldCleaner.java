@@ -3,6 +3,9 @@ package com.backend.cms.utils;
 import com.backend.cms.model.Collection;
 import com.backend.cms.model.User;
 
+import java.util.HashMap;
+import java.util.Map;
+
 
 // Utility class  for cleaning the fields of a User object by trimming and removing extra spaces.
 public class FieldCleaner {
@@ -27,6 +30,16 @@ public class FieldCleaner {
         return collection;
     }
 
+    // Copy of the post attributes with the string values trimmed
+    public static Map<String, Object> trimAttributes(Map<String, Object> attributes) {
+        Map<String, Object> trimmedAttributes = new HashMap<>();
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            Object attributeValue = entry.getValue();
+            trimmedAttributes.put(entry.getKey(), attributeValue instanceof String ? ((String) attributeValue).trim() : attributeValue);
+        }
+        return trimmedAttributes;
+    }
+
     public static String cleanField(String field) {
         return field.trim().replaceAll("\\s+", " ");
     }
@@ -0,0 +1,53 @@
+package com.backend.cms.utils;
+
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Utility class for the ?fields= parameter, a comma separated list of attribute names to return
+public final class FieldSelection {
+
+    private FieldSelection() {
+    }
+
+    // Returns the selected attribute names, or null when all attributes are wanted
+    public static List<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> attributeNames = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String attributeName = field.trim();
+            if (attributeName.isEmpty()) {
+                continue;
+            }
+            // Both would change the meaning of the attributes.<name> projection path
+            if (attributeName.contains(".") || attributeName.startsWith("$")) {
+                throw new IllegalArgumentException("Invalid field '" + attributeName + "'");
+            }
+            attributeNames.add(attributeName);
+        }
+        return attributeNames.isEmpty() ? null : new ArrayList<>(attributeNames);
+    }
+
+    // Keeps the post metadata and only the selected attributes, so unselected values never leave Mongo.
+    // Without a selection only the search text is left out, it is never returned.
+    public static void project(Query query, List<String> attributeNames) {
+        if (attributeNames == null) {
+            query.fields().exclude("searchText");
+            return;
+        }
+        Field fields = query.fields()
+                .include("postId")
+                .include("collectionId")
+                .include("userId")
+                .include("version");
+        for (String attributeName : attributeNames) {
+            fields.include("attributes." + attributeName);
+        }
+    }
+}
@@ -1,21 +1,73 @@
 package com.backend.cms.utils;
 
-// Utility class for generating unique IDs
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Utility class for generating unique IDs.
+// An id is the prefix followed by 18 base32 characters: 9 for the milliseconds since EPOCH, 5 for the node
+// and 4 for a sequence within the millisecond. Ids are time-ordered, and unique without a database lookup
+// as long as every node has its own node id.
 public final class Generator {
 
-    // Generates a random alphanumeric string of the specified length
-    private static String generateId(int length) {
-        String ALPHA_NUMERIC_STRING = "abcdefghijklmnopqrrstuvwxyz0123456789";
-        StringBuilder builder = new StringBuilder();
-        while (length-- != 0) {
-            int character = (int) (Math.random() * ALPHA_NUMERIC_STRING.length());
-            builder.append(ALPHA_NUMERIC_STRING.charAt(character));
-        }
-        return builder.toString();
+    // Lowercase Crockford base32, in ascending character order so ids sort like their numeric value
+    private static final char[] ALPHABET = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+
+    // 2020-01-01T00:00:00Z
+    private static final long EPOCH = 1577836800000L;
+
+    private static final int SEQUENCE_BITS = 20;
+    private static final int NODE_BITS = 25;
+
+    private static final String NODE = encode(nodeId(), NODE_BITS / 5);
+
+    // Last used milliseconds and sequence, packed as millis << SEQUENCE_BITS | sequence
+    private static final AtomicLong STATE = new AtomicLong();
+
+    private Generator() {
     }
 
-    // Generates a unique ID with a prefix and a random alphanumeric string of length 5
+    // Generates a unique ID with a prefix
     public static String generateId(String prefix) {
-        return prefix + generateId(5);
+        long state = nextState();
+        return prefix
+                + encode(state >>> SEQUENCE_BITS, 9)
+                + NODE
+                + encode(state & ((1L << SEQUENCE_BITS) - 1), SEQUENCE_BITS / 5);
+    }
+
+    // Within the same millisecond the sequence is incremented, an overflowing sequence carries into the
+    // millisecond part. A clock moving backwards keeps counting from the last state, so ids never go back.
+    private static long nextState() {
+        while (true) {
+            long current = STATE.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long next = now > current >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : current + 1;
+            if (STATE.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Taken from the cms.node-id system property or the CMS_NODE_ID environment variable,
+    // a random node id is used when neither is set
+    private static long nodeId() {
+        String configured = System.getProperty("cms.node-id", System.getenv("CMS_NODE_ID"));
+        if (configured != null && !configured.isBlank()) {
+            long nodeId = Long.parseLong(configured.trim());
+            if (nodeId < 0 || nodeId >= 1L << NODE_BITS) {
+                throw new IllegalArgumentException("Node id must be between 0 and " + ((1L << NODE_BITS) - 1));
+            }
+            return nodeId;
+        }
+        return new SecureRandom().nextInt(1 << NODE_BITS);
+    }
+
+    private static String encode(long value, int length) {
+        char[] characters = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            characters[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(characters);
     }
-}
\ No newline at end of file
+}
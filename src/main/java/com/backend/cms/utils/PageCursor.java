@@ -0,0 +1,60 @@
+package com.backend.cms.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+// Utility class for encoding and decoding the opaque cursors used by keyset pagination
+public final class PageCursor {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private PageCursor() {
+    }
+
+    // Encodes the _id of the last returned document into an url-safe cursor
+    public static String encode(ObjectId lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toHexString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Decodes a cursor back into the _id it was created from
+    public static ObjectId decode(String cursor) {
+        try {
+            String hex = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            return new ObjectId(hex);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    // Cursor of a sorted query, also carrying the sort value of the last returned document
+    public static String encode(ObjectId lastId, Object lastSortValue) {
+        Map<String, Object> keyset = new HashMap<>();
+        keyset.put("id", lastId.toHexString());
+        keyset.put("value", lastSortValue);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(keyset));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Sort value cannot be used in a page cursor");
+        }
+    }
+
+    public static Keyset decodeKeyset(String cursor) {
+        try {
+            Map<?, ?> keyset = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), Map.class);
+            return new Keyset(new ObjectId((String) keyset.get("id")), keyset.get("value"));
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page cursor");
+        }
+    }
+
+    public record Keyset(ObjectId lastId, Object lastSortValue) {
+    }
+}
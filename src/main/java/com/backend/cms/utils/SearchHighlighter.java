@@ -0,0 +1,91 @@
+package com.backend.cms.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Utility class for the text of the full-text index and the highlighted snippets of search results
+public final class SearchHighlighter {
+
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITE_SPACE = Pattern.compile("\\s+");
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    // Characters of context kept around the first match
+    private static final int CONTEXT = 60;
+
+    private SearchHighlighter() {
+    }
+
+    // Rich text is indexed and highlighted without its markup
+    public static String plainText(String text) {
+        return WHITE_SPACE.matcher(TAG.matcher(text).replaceAll(" ")).replaceAll(" ").trim();
+    }
+
+    // Lowercase terms of a search, negated terms are left out since they never match a result
+    public static List<String> terms(String search) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : WHITE_SPACE.split(search.trim())) {
+            if (word.startsWith("-")) {
+                continue;
+            }
+            Matcher matcher = TERM.matcher(word);
+            while (matcher.find()) {
+                terms.add(matcher.group().toLowerCase(Locale.ROOT));
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    // Snippet around the first match with every matching word wrapped in <em>, or null without a match.
+    // Words starting with a term match as well, the index stems "running" to "run".
+    public static String highlight(String text, List<String> terms) {
+        if (text == null || terms.isEmpty()) {
+            return null;
+        }
+        String plain = plainText(text);
+        Matcher matcher = wordsStartingWith(terms).matcher(plain);
+        if (!matcher.find()) {
+            return null;
+        }
+
+        int start = Math.max(0, matcher.start() - CONTEXT);
+        int end = Math.min(plain.length(), matcher.end() + CONTEXT);
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append("...");
+        }
+        int position = start;
+        matcher.region(start, end).useTransparentBounds(true);
+        while (matcher.find()) {
+            snippet.append(escape(plain.substring(position, matcher.start())))
+                    .append("<em>").append(escape(matcher.group())).append("</em>");
+            position = matcher.end();
+        }
+        snippet.append(escape(plain.substring(position, end)));
+        if (end < plain.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+
+    private static Pattern wordsStartingWith(List<String> terms) {
+        StringBuilder pattern = new StringBuilder("(?<![\\p{L}\\p{N}])(?:");
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) {
+                pattern.append('|');
+            }
+            pattern.append(Pattern.quote(terms.get(i)));
+        }
+        return Pattern.compile(pattern.append(")[\\p{L}\\p{N}]*").toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+
+    // Snippets are returned as HTML, so the post text itself is escaped
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
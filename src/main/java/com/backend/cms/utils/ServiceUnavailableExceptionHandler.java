@@ -0,0 +1,29 @@
+package com.backend.cms.utils;
+
+import com.backend.cms.exceptions.ServiceUnavailableException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ControllerAdvice
+public class ServiceUnavailableExceptionHandler {
+
+    // Tells the client when to try again instead of letting it retry immediately
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        response.put("status", String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value()));
+        response.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+}
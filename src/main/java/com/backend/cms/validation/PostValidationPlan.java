@@ -0,0 +1,395 @@
+package com.backend.cms.validation;
+
+import com.backend.cms.codec.AttributeLayout;
+import com.backend.cms.model.*;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable validation plan compiled once from the attributes of a collection.
+// Every attribute gets a pre-bound check and its default value resolved up front,
+// so validating a post does not walk the attribute types again.
+// DATE and NUMBER values are validated as text or numbers, stored as BSON dates and typed numbers,
+// and returned in the format of their attribute again.
+public final class PostValidationPlan {
+
+    // Looks up whether a value of a unique attribute is already used by another post
+    @FunctionalInterface
+    public interface UniquenessCheck {
+        boolean isNotUnique(String attributeName, String value);
+    }
+
+    @FunctionalInterface
+    private interface ValueCheck {
+        void check(Object value, UniquenessCheck uniquenessCheck);
+    }
+
+    @FunctionalInterface
+    private interface ValueConverter {
+        Object convert(Object value);
+    }
+
+    private static final ValueConverter UNCHANGED = value -> value;
+
+    private static final class Slot {
+        private final String name;
+        private final boolean required;
+        private final boolean hasDefaultValue;
+        private final Object defaultValue;
+        private final Object emptyValue;
+        private final ValueCheck check;
+        private final ValueConverter storedValue;
+        private final ValueConverter outputValue;
+
+        private Slot(String name, boolean required, boolean hasDefaultValue, Object defaultValue, Object emptyValue, ValueCheck check) {
+            this(name, required, hasDefaultValue, defaultValue, emptyValue, check, UNCHANGED, UNCHANGED);
+        }
+
+        private Slot(String name, boolean required, boolean hasDefaultValue, Object defaultValue, Object emptyValue, ValueCheck check,
+                     ValueConverter storedValue, ValueConverter outputValue) {
+            this.name = name;
+            this.required = required;
+            this.hasDefaultValue = hasDefaultValue;
+            this.defaultValue = defaultValue;
+            this.emptyValue = emptyValue;
+            this.check = check;
+            this.storedValue = storedValue;
+            this.outputValue = outputValue;
+        }
+    }
+
+    private final Slot[] slots;
+    private final Map<String, Slot> slotsByName;
+    private final List<String> uniqueAttributes;
+    private final List<String> searchableAttributes;
+    private final AttributeLayout attributeLayout;
+
+    private PostValidationPlan(Slot[] slots, List<String> uniqueAttributes, List<String> searchableAttributes) {
+        this.slots = slots;
+        this.uniqueAttributes = uniqueAttributes;
+        this.searchableAttributes = searchableAttributes;
+
+        Map<String, Slot> byName = new HashMap<>();
+        List<String> names = new ArrayList<>(slots.length);
+        for (Slot slot : slots) {
+            byName.put(slot.name, slot);
+            names.add(slot.name);
+        }
+        this.slotsByName = Collections.unmodifiableMap(byName);
+        this.attributeLayout = new AttributeLayout(names);
+    }
+
+    public static PostValidationPlan compile(List<Attribute> attributes) {
+        Slot[] slots = new Slot[attributes.size()];
+        List<String> uniqueAttributes = new ArrayList<>();
+        List<String> searchableAttributes = new ArrayList<>();
+        for (int i = 0; i < slots.length; i++) {
+            Attribute attribute = attributes.get(i);
+            slots[i] = compileSlot(attribute);
+            if (attribute instanceof TextAttribute textAttribute && textAttribute.isUnique()
+                    && attribute.getContentType() == ContentType.TEXT) {
+                uniqueAttributes.add(attribute.getName());
+            }
+            if (attribute instanceof TextAttribute && attribute.getContentType() == ContentType.TEXT
+                    || attribute instanceof RichTextAttribute && attribute.getContentType() == ContentType.RICHTEXT) {
+                searchableAttributes.add(attribute.getName());
+            }
+        }
+        return new PostValidationPlan(slots, Collections.unmodifiableList(uniqueAttributes), Collections.unmodifiableList(searchableAttributes));
+    }
+
+    public boolean hasAttribute(String name) {
+        return slotsByName.containsKey(name);
+    }
+
+    // Names of the attributes whose values must be unique within the collection
+    public List<String> getUniqueAttributes() {
+        return uniqueAttributes;
+    }
+
+    // Names of the TEXT and RICHTEXT attributes covered by full-text search
+    public List<String> getSearchableAttributes() {
+        return searchableAttributes;
+    }
+
+    // Attribute positions for reading posts of the collection with the PostCodec
+    public AttributeLayout getAttributeLayout() {
+        return attributeLayout;
+    }
+
+    // Sets the default value of the attribute for every missing, null or empty post attribute
+    public void applyDefaults(Map<String, Object> postAttributes) {
+        for (Slot slot : slots) {
+            Object value = postAttributes.get(slot.name);
+            if (slot.hasDefaultValue && (value == null || isEmpty(value))) {
+                postAttributes.put(slot.name, slot.defaultValue);
+            }
+        }
+    }
+
+    public void validate(Map<String, Object> postAttributes, UniquenessCheck uniquenessCheck) {
+        if (postAttributes == null) {
+            throw new IllegalArgumentException("postAttributes cannot be null.");
+        }
+
+        boolean foundRequiredAttribute = false;
+        boolean foundNonRequiredAttributeWithNonEmptyValue = false;
+
+        for (Slot slot : slots) {
+            Object value = postAttributes.get(slot.name);
+            if (value == null && !postAttributes.containsKey(slot.name)) {
+                continue;
+            }
+            validateValue(slot, value, uniquenessCheck);
+
+            if (slot.required) {
+                foundRequiredAttribute = true;
+            } else if (value != null && !isEmpty(value)) {
+                foundNonRequiredAttributeWithNonEmptyValue = true;
+            }
+        }
+
+        if (!foundRequiredAttribute && !foundNonRequiredAttributeWithNonEmptyValue) {
+            throw new IllegalArgumentException("A post cannot be created with empty data");
+        }
+    }
+
+    // Replaces validated values with the type they are stored with. Empty DATE and NUMBER values are
+    // stored as null, a "" would sort apart from the typed values and break keyset pagination.
+    public void convertForStorage(Map<String, Object> postAttributes) {
+        for (Slot slot : slots) {
+            Object value = postAttributes.get(slot.name);
+            if (slot.storedValue != UNCHANGED && value != null) {
+                postAttributes.put(slot.name, isEmpty(value) ? null : slot.storedValue.convert(value));
+            }
+        }
+    }
+
+    // Stored type of a single value, throws an IllegalArgumentException when it cannot be converted
+    public Object toStoredValue(String attributeName, Object value) {
+        Slot slot = slotsByName.get(attributeName);
+        if (slot == null || value == null) {
+            return value;
+        }
+        if (isEmpty(value)) {
+            return slot.storedValue != UNCHANGED ? null : value;
+        }
+        try {
+            return slot.storedValue.convert(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Attribute '" + attributeName + "' cannot be converted: " + value);
+        }
+    }
+
+    // Turns stored dates back into their formatted text for responses, and stored empty values into ""
+    public void formatForOutput(Map<String, Object> postAttributes) {
+        for (Slot slot : slots) {
+            Object value = postAttributes.get(slot.name);
+            if (value == null) {
+                if (slot.storedValue != UNCHANGED && postAttributes.containsKey(slot.name)) {
+                    postAttributes.put(slot.name, slot.emptyValue);
+                }
+            } else if (slot.outputValue != UNCHANGED) {
+                postAttributes.put(slot.name, slot.outputValue.convert(value));
+            }
+        }
+    }
+
+    // Response value of a single stored value, as formatForOutput formats it
+    public Object toOutputValue(String attributeName, Object value) {
+        Slot slot = slotsByName.get(attributeName);
+        if (slot == null) {
+            return value;
+        }
+        if (value == null) {
+            return slot.storedValue != UNCHANGED ? slot.emptyValue : null;
+        }
+        return slot.outputValue.convert(value);
+    }
+
+    private static void validateValue(Slot slot, Object value, UniquenessCheck uniquenessCheck) {
+        if (slot.required && isEmpty(value)) {
+            throw new IllegalArgumentException("Required attribute " + slot.name + " cannot be null");
+        }
+
+        Object valueToValidate = (value != null) ? value : slot.emptyValue;
+
+        // Skip validation for non-required attributes with default values
+        if (!slot.required && valueToValidate.equals(slot.emptyValue)) {
+            return;
+        }
+
+        slot.check.check(valueToValidate, uniquenessCheck);
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value instanceof String text ? text.isEmpty() : value.toString().isEmpty();
+    }
+
+    private static Slot compileSlot(Attribute attribute) {
+        String name = attribute.getName();
+        ContentType contentType = attribute.getContentType();
+        Object emptyValue = contentType == ContentType.MEDIA ? null : "";
+
+        if (attribute instanceof TextAttribute textAttribute) {
+            return new Slot(name, attribute.isRequired(), true, textAttribute.getDefaultValue(), emptyValue, textCheck(textAttribute));
+        } else if (attribute instanceof RichTextAttribute richTextAttribute) {
+            return new Slot(name, attribute.isRequired(), true, richTextAttribute.getDefaultValue(), emptyValue, richTextCheck(richTextAttribute));
+        } else if (attribute instanceof NumberAttribute numberAttribute) {
+            return new Slot(name, attribute.isRequired(), true, numberAttribute.getDefaultValue(), emptyValue, numberCheck(numberAttribute),
+                    numberStoredValue(numberAttribute), PostValidationPlan::numberOutputValue);
+        } else if (attribute instanceof DateAttribute dateAttribute) {
+            return new Slot(name, attribute.isRequired(), true, dateAttribute.getDefaultValue(), emptyValue, dateCheck(dateAttribute),
+                    dateStoredValue(dateAttribute), dateOutputValue(dateAttribute));
+        }
+        return new Slot(name, attribute.isRequired(), false, null, emptyValue, invalidDefinitionCheck(attribute));
+    }
+
+    private static ValueCheck textCheck(TextAttribute attribute) {
+        if (attribute.getContentType() != ContentType.TEXT) {
+            return invalidDefinitionCheck(attribute);
+        }
+        String name = attribute.getName();
+        Integer minimumLength = attribute.getMinimumLength();
+        Integer maximumLength = attribute.getMaximumLength();
+        boolean unique = attribute.isUnique();
+
+        return (value, uniquenessCheck) -> {
+            String textValue = value.toString();
+
+            if (textValue.length() < minimumLength) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a minimum length of " + minimumLength);
+            }
+            if (maximumLength != null && textValue.length() > maximumLength) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a maximum length of " + maximumLength);
+            }
+            if (unique && uniquenessCheck.isNotUnique(name, textValue)) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a unique value.");
+            }
+        };
+    }
+
+    private static ValueCheck richTextCheck(RichTextAttribute attribute) {
+        if (attribute.getContentType() != ContentType.RICHTEXT) {
+            return invalidDefinitionCheck(attribute);
+        }
+        String name = attribute.getName();
+        Integer minimumLength = attribute.getMinimumLength();
+        Integer maximumLength = attribute.getMaximumLength();
+
+        return (value, uniquenessCheck) -> {
+            String richTextValue = value.toString();
+
+            if (richTextValue.length() < minimumLength) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a minimum length of " + minimumLength);
+            }
+            if (maximumLength != null && richTextValue.length() > maximumLength) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a maximum length of " + maximumLength);
+            }
+        };
+    }
+
+    private static ValueCheck numberCheck(NumberAttribute attribute) {
+        if (attribute.getContentType() != ContentType.NUMBER) {
+            return invalidDefinitionCheck(attribute);
+        }
+        String name = attribute.getName();
+        Integer minimumValue = attribute.getMinimumValue();
+        Integer maximumValue = attribute.getMaximumValue();
+        FormatType formatType = attribute.getFormatType();
+        boolean wholeNumber = formatType == FormatType.INTEGER || formatType == FormatType.BIGINTEGER;
+
+        return (value, uniquenessCheck) -> {
+            BigDecimal number;
+            try {
+                number = FormatType.toBigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must be a number.");
+            }
+
+            // Compared without truncating, 2.5 is above a maximum of 2
+            if (minimumValue != null && number.compareTo(BigDecimal.valueOf(minimumValue)) < 0) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a minimum value of " + minimumValue);
+            }
+            if (maximumValue != null && number.compareTo(BigDecimal.valueOf(maximumValue)) > 0) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must have a maximum value of " + maximumValue);
+            }
+            if (wholeNumber && !FormatType.isWholeNumber(number)) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must be a whole number.");
+            }
+            try {
+                FormatType.toStoredValue(formatType, number);
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new IllegalArgumentException("Attribute '" + name + "' is out of range.");
+            }
+        };
+    }
+
+    private static ValueConverter numberStoredValue(NumberAttribute attribute) {
+        FormatType formatType = attribute.getFormatType();
+        return value -> FormatType.toStoredValue(formatType, value);
+    }
+
+    // Jackson writes a BigDecimal as a plain number, a Decimal128 would be written as an object
+    private static Object numberOutputValue(Object value) {
+        return value instanceof Decimal128 decimal128 ? decimal128.bigDecimalValue() : value;
+    }
+
+    private static ValueCheck dateCheck(DateAttribute attribute) {
+        if (attribute.getContentType() != ContentType.DATE) {
+            return invalidDefinitionCheck(attribute);
+        }
+        String name = attribute.getName();
+        DateType dateType = attribute.getDateType();
+
+        return (value, uniquenessCheck) -> {
+            if (dateType == null) {
+                throw new IllegalArgumentException("Invalid DateType specified for attribute '" + name + "'");
+            }
+            if (value instanceof Date) {
+                return;
+            }
+            try {
+                dateType.parse(value.toString());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Attribute '" + name + "' must be a valid format.");
+            }
+        };
+    }
+
+    private static ValueConverter dateStoredValue(DateAttribute attribute) {
+        DateType dateType = attribute.getDateType();
+        if (dateType == null) {
+            return UNCHANGED;
+        }
+        return value -> value instanceof Date ? value : dateType.parse(value.toString());
+    }
+
+    private static ValueConverter dateOutputValue(DateAttribute attribute) {
+        DateType dateType = attribute.getDateType();
+        if (dateType == null) {
+            return UNCHANGED;
+        }
+        return value -> value instanceof Date date ? dateType.format(date) : value;
+    }
+
+    // Attributes whose class does not match their content type, or that have no checks (MEDIA)
+    private static ValueCheck invalidDefinitionCheck(Attribute attribute) {
+        if (attribute.getContentType() == ContentType.MEDIA || attribute.getContentType() == null) {
+            return (value, uniquenessCheck) -> {
+            };
+        }
+        String name = attribute.getName();
+        return (value, uniquenessCheck) -> {
+            throw new IllegalStateException("Attribute '" + name + "' has an invalid definition");
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.backend.cms.codec;
+
+import com.backend.cms.model.Post;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt32;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostCodecTest {
+
+    private static final AttributeLayout LAYOUT = new AttributeLayout(List.of("Title", "Count", "Published", "Price"));
+
+    private final PostCodec codec = new PostCodec(MongoClientSettings.getDefaultCodecRegistry(),
+            collectionId -> collectionId.equals("c1") ? LAYOUT : null);
+
+    @Test
+    void decode_KnownCollection_ReadsAttributesIntoSchemaLayout() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("Price", Decimal128.parse("9.99"));
+        attributes.put("Title", "Hello");
+        attributes.put("Count", 3L);
+        attributes.put("Published", new Date(1000));
+        attributes.put("Removed", List.of("a", "b"));
+        Post post = new Post(new ObjectId(), "p1", "c1", "u1", attributes, List.of("key"), List.of("Hello"), null, 2L);
+
+        Post decoded = roundTrip(post);
+
+        assertEquals(post, decoded);
+        assertTrue(decoded.getAttributes() instanceof CompactAttributeMap);
+        assertEquals(List.of("Title", "Count", "Published", "Price", "Removed"), new ArrayList<>(decoded.getAttributes().keySet()));
+        assertTrue(decoded.getAttributes().get("Count") instanceof Long);
+        assertTrue(decoded.getAttributes().get("Published") instanceof Date);
+    }
+
+    @Test
+    void decode_UnknownCollection_ReadsAttributesIntoRegularMap() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("Title", "Hello");
+        attributes.put("Nested", Map.of("a", 1));
+        Post post = new Post(new ObjectId(), "p1", "other", "u1", attributes, null, null, null, null);
+
+        Post decoded = roundTrip(post);
+
+        assertEquals(post, decoded);
+        assertTrue(decoded.getAttributes() instanceof LinkedHashMap);
+    }
+
+    @Test
+    void decode_SkipsSpringFieldsAndReadsIntVersion() {
+        BsonDocument document = new BsonDocument("_id", new org.bson.BsonObjectId(new ObjectId()))
+                .append("_class", new BsonString("com.backend.cms.model.Post"))
+                .append("postId", new BsonString("p1"))
+                .append("version", new BsonInt32(4));
+
+        Post decoded = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+
+        assertEquals("p1", decoded.getPostId());
+        assertEquals(4L, decoded.getVersion());
+        assertNull(decoded.getAttributes());
+    }
+
+    @Test
+    void decode_ToleratesSearchTextLeftByPositionalUpdates() {
+        BsonDocument padded = new BsonDocument("postId", new BsonString("p1"))
+                .append("searchText", new BsonArray(List.of(new BsonString("Title"), BsonNull.VALUE, new BsonString("Body"))));
+        BsonDocument subdocument = new BsonDocument("postId", new BsonString("p2"))
+                .append("searchText", new BsonDocument("1", new BsonString("Body")))
+                .append("version", new BsonInt32(1));
+
+        Post decodedPadded = codec.decode(new BsonDocumentReader(padded), DecoderContext.builder().build());
+        Post decodedSubdocument = codec.decode(new BsonDocumentReader(subdocument), DecoderContext.builder().build());
+
+        assertEquals(List.of("Title", "", "Body"), decodedPadded.getSearchText());
+        assertNull(decodedSubdocument.getSearchText());
+        assertEquals(1L, decodedSubdocument.getVersion());
+    }
+
+    @Test
+    void compactAttributeMap_RemoveAndOverflow() {
+        CompactAttributeMap attributes = new CompactAttributeMap(LAYOUT);
+        attributes.put("Count", 1);
+        attributes.put("Extra", "x");
+        attributes.put("Title", null);
+
+        assertEquals(3, attributes.size());
+        assertTrue(attributes.containsKey("Title"));
+        assertEquals(1, attributes.remove("Count"));
+        assertFalse(attributes.containsKey("Count"));
+        assertEquals("x", attributes.get("Extra"));
+        assertEquals(List.of("Title", "Extra"), new ArrayList<>(attributes.keySet()));
+    }
+
+    private Post roundTrip(Post post) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), post, EncoderContext.builder().build());
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
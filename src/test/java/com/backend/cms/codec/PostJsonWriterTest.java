@@ -0,0 +1,73 @@
+package com.backend.cms.codec;
+
+import com.backend.cms.dto.PostDTO;
+import com.backend.cms.model.*;
+import com.backend.cms.validation.PostValidationPlan;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void write_MatchesPostDtoJson() throws Exception {
+        PostValidationPlan plan = PostValidationPlan.compile(List.of(
+                AttributeFactory.createTextAttribute("a1", "Title", ContentType.TEXT, true, 2, 50, false, TextType.SHORT, null),
+                AttributeFactory.createNumberAttribute("a2", "Price", ContentType.NUMBER, false, FormatType.DECIMAL, null, false, 0, 1000),
+                AttributeFactory.createDateAttribute("a3", "Published", ContentType.DATE, false, DateType.DATE, null, false)));
+        Map<String, Object> attributes = new HashMap<>(Map.of("Title", "Hello \"world\"", "Price", "9.99", "Published", "2023-02-02",
+                "Tags", List.of("a", "b")));
+        plan.convertForStorage(attributes);
+        Post post = new Post(new ObjectId(), "p1", "c1", "u1", attributes, List.of("key"), List.of("Hello"), null, 3L);
+        RawBsonDocument stored = store(post);
+
+        String json = write(stored, plan::toOutputValue);
+
+        PostCodec codec = new PostCodec(MongoClientSettings.getDefaultCodecRegistry(), collectionId -> null);
+        Post decoded = codec.decode(stored.asBsonReader(), DecoderContext.builder().build());
+        plan.formatForOutput(decoded.getAttributes());
+        assertEquals(objectMapper.writeValueAsString(PostDTO.fromPost(decoded)), json);
+    }
+
+    @Test
+    void write_MissingFieldsAreNull() throws Exception {
+        Post post = new Post(new ObjectId(), "p1", null, null, null, null, null, null, null);
+
+        String json = write(store(post), (attributeName, value) -> value);
+
+        assertEquals("{\"id\":\"p1\",\"collectionId\":null,\"userId\":null,\"attributes\":null,\"version\":null}", json);
+    }
+
+    private static RawBsonDocument store(Post post) {
+        BsonDocument document = new BsonDocument();
+        new PostCodec(MongoClientSettings.getDefaultCodecRegistry(), collectionId -> null)
+                .encode(new BsonDocumentWriter(document), post, EncoderContext.builder().build());
+        return new RawBsonDocument(document, new BsonDocumentCodec());
+    }
+
+    private String write(RawBsonDocument post, BiFunction<String, Object, Object> outputValue) throws Exception {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(json)) {
+            PostJsonWriter.write(post, generator, outputValue);
+        }
+        return json.toString();
+    }
+}
@@ -1,13 +1,13 @@
 package com.backend.cms.controller;
 
 import com.backend.cms.dto.PostDTO;
+import com.backend.cms.dto.PostPageDTO;
 import com.backend.cms.exceptions.NotFoundException;
 import com.backend.cms.model.*;
 import com.backend.cms.repository.UserRepository;
 import com.backend.cms.request.CreatePostRequest;
 import com.backend.cms.security.jwt.JwtTokenUtil;
 import com.backend.cms.service.PostService;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,11 +21,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -127,9 +131,9 @@ class PostControllerTest {
 
     @Test
     void testGetAllPostsForCollection_SuccessfulRequest() throws Exception {
-        // Mock to return a list of posts
-        List<Post> mockPosts = Arrays.asList(new Post(), new Post());
-        when(postService.findPostsByCollectionId(anyString())).thenReturn(mockPosts);
+        // Mock to return a page of posts
+        List<PostDTO> mockPosts = Arrays.asList(new PostDTO(), new PostDTO());
+        when(postService.findPostPageByCollectionId(anyString(), any(), any(), any())).thenReturn(new PostPageDTO(mockPosts, "nextCursor"));
 
         String collectionId = "validCollectionId";
 
@@ -142,15 +146,15 @@ class PostControllerTest {
         assertEquals(HttpStatus.OK, HttpStatus.valueOf(result.getResponse().getStatus()));
 
         ObjectMapper objectMapper = new ObjectMapper();
-        List<Post> actualPosts = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
-        });
-        assertEquals(mockPosts.size(), actualPosts.size());
+        PostPageDTO actualPage = objectMapper.readValue(result.getResponse().getContentAsString(), PostPageDTO.class);
+        assertEquals(mockPosts.size(), actualPage.getPosts().size());
+        assertEquals("nextCursor", actualPage.getNextCursor());
     }
 
     @Test
     void testGetAllPostsForCollection_ErrorRequest() throws Exception {
         // Mock to throw an exception
-        when(postService.findPostsByCollectionId(anyString())).thenThrow(new RuntimeException("Error"));
+        when(postService.findPostPageByCollectionId(anyString(), any(), any(), any())).thenThrow(new RuntimeException("Error"));
 
         String collectionId = "validCollectionId";
 
@@ -163,11 +167,65 @@ class PostControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, HttpStatus.valueOf(result.getResponse().getStatus()));
     }
 
+    @Test
+    void testStreamAllPostsForCollection_WritesNdjson() throws Exception {
+        // Mock to write two posts as json lines
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("{\"id\":\"p1\"}\n{\"id\":\"p2\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(postService).streamPostsByCollectionId(anyString(), any(), any(OutputStream.class));
+
+        String collectionId = "validCollectionId";
+
+        MvcResult asyncResult = mvc.perform(
+                        MockMvcRequestBuilders.get("/api/v1/posts/collection/{collectionId}", collectionId)
+                                .param("stream", "true")
+                                .header("Authorization", "Bearer " + token))
+                .andReturn();
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+        assertEquals(HttpStatus.OK, HttpStatus.valueOf(result.getResponse().getStatus()));
+        assertEquals("application/x-ndjson", result.getResponse().getContentType());
+        assertEquals(2, result.getResponse().getContentAsString().split("\n").length);
+    }
+
+    @Test
+    void testCreatePostsFromNdjson_MalformedLineIsBadRequest() throws Exception {
+        when(postService.getMaxBulkSize()).thenReturn(10);
+
+        MvcResult result = mvc.perform(
+                        MockMvcRequestBuilders.post("/api/v1/posts/{collectionId}/bulk", "validCollectionId")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType("application/x-ndjson")
+                                .content("{\"attributes\":{}}\n{\"attributes\":\n"))
+                .andReturn();
+
+        assertEquals(HttpStatus.BAD_REQUEST, HttpStatus.valueOf(result.getResponse().getStatus()));
+        verify(postService, never()).createPosts(anyString(), any(), anyBoolean());
+    }
+
+    @Test
+    void testCreatePostsFromNdjson_TooManyPostsIsBadRequest() throws Exception {
+        when(postService.getMaxBulkSize()).thenReturn(2);
+
+        MvcResult result = mvc.perform(
+                        MockMvcRequestBuilders.post("/api/v1/posts/{collectionId}/bulk", "validCollectionId")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType("application/x-ndjson")
+                                .content("{\"attributes\":{}}\n{\"attributes\":{}}\n{\"attributes\":{}}\n"))
+                .andReturn();
+
+        assertEquals(HttpStatus.BAD_REQUEST, HttpStatus.valueOf(result.getResponse().getStatus()));
+        assertEquals("A bulk request cannot contain more than 2 posts.", result.getResponse().getContentAsString());
+        verify(postService, never()).createPosts(anyString(), any(), anyBoolean());
+    }
+
     @Test
     void testFindPostById_ValidPost() throws Exception {
         // Mock to return a post
         Post mockPost = new Post();
-        when(postService.findPostFailIfNotFound(anyString())).thenReturn(mockPost);
+        when(postService.findPostFailIfNotFound(anyString(), any())).thenReturn(mockPost);
 
         String postId = "validPostId";
 
@@ -188,7 +246,7 @@ class PostControllerTest {
     @Test
     void testFindPostById_NotFound() throws Exception {
         // Mock to throw NotFoundException
-        when(postService.findPostFailIfNotFound(anyString())).thenThrow(new NotFoundException());
+        when(postService.findPostFailIfNotFound(anyString(), any())).thenThrow(new NotFoundException());
 
         String postId = "nonExistentPostId";
 
@@ -7,9 +7,11 @@ import com.backend.cms.model.UserType;
 import com.backend.cms.repository.UserRepository;
 import com.backend.cms.request.LoginRequest;
 import com.backend.cms.request.SetPasswordRequest;
+import com.backend.cms.security.jwt.JwtTokenCache;
 import com.backend.cms.security.jwt.JwtTokenUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,12 +40,20 @@ class UserControllerTest {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
     @MockBean
     private UserRepository userRepository; // Mocked UserRepository
 
     @InjectMocks
     private UserController userController;
 
+    @BeforeEach
+    void setUp() {
+        // The mocked user changes between tests, so a token verified earlier must not be reused
+        jwtTokenCache.invalidateAll();
+    }
 
     @Test
     void testFindUserById() throws Exception {
@@ -0,0 +1,68 @@
+package com.backend.cms.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoCommandMetricsTest {
+
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private SimpleMeterRegistry registry;
+    private MongoCommandMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MongoCommandMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+    }
+
+    @Test
+    void commandSucceeded_RecordsTimerByCommandAndCollection() {
+        BsonDocument find = new BsonDocument("find", new BsonString("post")).append("filter", new BsonDocument());
+        metrics.commandStarted(new CommandStartedEvent(1, CONNECTION, "cms", "find", find));
+        metrics.commandSucceeded(new CommandSucceededEvent(1, CONNECTION, "find", new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(5)));
+
+        Timer timer = registry.get(MongoCommandMetrics.METRIC_NAME)
+                .tags("command", "find", "collection", "post", "status", "success")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(5, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void commandFailed_RecordsFailedStatus() {
+        BsonDocument insert = new BsonDocument("insert", new BsonString("collection"));
+        metrics.commandStarted(new CommandStartedEvent(2, CONNECTION, "cms", "insert", insert));
+        metrics.commandFailed(new CommandFailedEvent(2, CONNECTION, "insert", 1000, new RuntimeException()));
+
+        assertEquals(1, registry.get(MongoCommandMetrics.METRIC_NAME)
+                .tags("command", "insert", "collection", "collection", "status", "failed")
+                .timer().count());
+    }
+
+    @Test
+    void collectionOf_ReadsGetMoreCollectionAndIgnoresAdminCommands() {
+        BsonDocument getMore = new BsonDocument("getMore", new BsonInt64(42)).append("collection", new BsonString("post"));
+
+        assertEquals("post", MongoCommandMetrics.collectionOf("getMore", getMore));
+        assertEquals("none", MongoCommandMetrics.collectionOf("ping", new BsonDocument("ping", new BsonInt64(1))));
+    }
+}
@@ -0,0 +1,112 @@
+package com.backend.cms.metrics;
+
+import com.backend.cms.dto.SlowOperationDTO;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowOperationRecorderTest {
+
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final SlowOperationRecorder recorder = new SlowOperationRecorder(true, 100, 2);
+
+    @Test
+    void commandSucceeded_RecordsSlowFindWithRedactedFilter() {
+        BsonDocument filter = new BsonDocument("collectionId", new BsonString("c1"))
+                .append("attributes.Title", new BsonDocument("$in", new BsonArray(List.of(new BsonString("secret")))));
+        BsonDocument find = new BsonDocument("find", new BsonString("post"))
+                .append("filter", filter)
+                .append("sort", new BsonDocument("_id", new BsonInt32(-1)));
+        BsonDocument response = new BsonDocument("cursor", new BsonDocument("firstBatch",
+                new BsonArray(List.of(new BsonDocument(), new BsonDocument()))));
+
+        run(1, "find", find, response, 150);
+
+        List<SlowOperationRecorder.SlowOperation> operations = recorder.getOperations();
+        assertEquals(1, operations.size());
+        SlowOperationDTO operation = operations.get(0).operation();
+        assertEquals("post", operation.getCollection());
+        assertEquals(2L, operation.getDocuments());
+        assertEquals(Map.of("collectionId", "?", "attributes.Title", Map.of("$in", "?")), operation.getShape().get("filter"));
+        assertEquals(Map.of("_id", -1L), operation.getShape().get("sort"));
+        assertFalse(operation.toString().contains("secret"));
+
+        // The explain command keeps the values to find the same plan
+        assertEquals(filter, operations.get(0).explainCommand().getDocument("filter"));
+    }
+
+    @Test
+    void commandSucceeded_IgnoresFastCommandsAndKeepsTheLastOnes() {
+        BsonDocument update = new BsonDocument("update", new BsonString("post"))
+                .append("updates", new BsonArray(List.of(new BsonDocument("q", new BsonDocument("postId", new BsonString("p1"))))));
+
+        run(1, "update", update, new BsonDocument("n", new BsonInt32(1)), 5);
+        assertTrue(recorder.getOperations().isEmpty());
+
+        run(2, "update", update, new BsonDocument("n", new BsonInt32(1)), 200);
+        run(3, "update", update, new BsonDocument("n", new BsonInt32(1)), 300);
+        run(4, "update", update, new BsonDocument("n", new BsonInt32(1)), 400);
+
+        List<SlowOperationRecorder.SlowOperation> operations = recorder.getOperations();
+        assertEquals(2, operations.size());
+        assertEquals(400, operations.get(0).operation().getDurationMillis(), 0.001);
+        assertEquals(300, operations.get(1).operation().getDurationMillis(), 0.001);
+        // A slow update is explained as a find of the documents it matches
+        assertEquals("post", operations.get(0).explainCommand().getString("find").getValue());
+    }
+
+    @Test
+    void redactExplain_RemovesQueryValues() {
+        BsonDocument filter = new BsonDocument("collectionId", new BsonString("c1"))
+                .append("attributes.Title", new BsonDocument("$eq", new BsonString("secret")));
+        BsonDocument indexScan = new BsonDocument("stage", new BsonString("IXSCAN"))
+                .append("indexName", new BsonString("attr_Title"))
+                .append("indexBounds", new BsonDocument("collectionId", new BsonArray(List.of(new BsonString("[\"c1\", \"c1\"]"))))
+                        .append("attributes.Title", new BsonArray(List.of(new BsonString("[MinKey, MaxKey]")))));
+        BsonDocument fetch = new BsonDocument("stage", new BsonString("FETCH"))
+                .append("filter", new BsonDocument("attributes.Title", new BsonDocument("$eq", new BsonString("secret"))))
+                .append("inputStage", indexScan);
+        BsonDocument explain = new BsonDocument("queryPlanner", new BsonDocument("parsedQuery", filter)
+                .append("winningPlan", fetch)
+                .append("rejectedPlans", new BsonArray()))
+                .append("executionStats", new BsonDocument("nReturned", new BsonInt32(2)).append("executionStages", fetch))
+                .append("command", new BsonDocument("find", new BsonString("post")).append("filter", filter))
+                .append("ok", new BsonDouble(1));
+
+        Map<String, Object> redacted = SlowOperationRecorder.redactExplain(explain);
+
+        assertFalse(redacted.toString().contains("secret"));
+        assertFalse(redacted.toString().contains("c1"));
+        Map<?, ?> queryPlanner = (Map<?, ?>) redacted.get("queryPlanner");
+        assertEquals(Map.of("collectionId", "?", "attributes.Title", Map.of("$eq", "?")), queryPlanner.get("parsedQuery"));
+        Map<?, ?> winningPlan = (Map<?, ?>) queryPlanner.get("winningPlan");
+        assertEquals("FETCH", winningPlan.get("stage"));
+        Map<?, ?> inputStage = (Map<?, ?>) winningPlan.get("inputStage");
+        assertEquals("attr_Title", inputStage.get("indexName"));
+        // Unbounded fields still show how much of the index is scanned
+        assertEquals(Map.of("collectionId", List.of("?"), "attributes.Title", List.of("[MinKey, MaxKey]")), inputStage.get("indexBounds"));
+        assertEquals(2L, ((Map<?, ?>) redacted.get("executionStats")).get("nReturned"));
+        assertEquals(Map.of("find", "?", "filter", Map.of("collectionId", "?", "attributes.Title", Map.of("$eq", "?"))), redacted.get("command"));
+    }
+
+    private void run(int requestId, String command, BsonDocument document, BsonDocument response, long millis) {
+        recorder.commandStarted(new CommandStartedEvent(requestId, CONNECTION, "cms", command, document));
+        recorder.commandSucceeded(new CommandSucceededEvent(requestId, CONNECTION, command, response, TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+}
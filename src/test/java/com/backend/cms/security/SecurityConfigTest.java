@@ -0,0 +1,55 @@
+package com.backend.cms.security;
+
+import com.backend.cms.model.User;
+import com.backend.cms.model.UserType;
+import com.backend.cms.repository.UserRepository;
+import com.backend.cms.security.jwt.JwtTokenUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    @MockBean
+    private UserRepository userRepository;
+
+    @Test
+    void testPrometheusWithoutTokenIsUnauthorized() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")).andReturn();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, HttpStatus.valueOf(result.getResponse().getStatus()));
+    }
+
+    @Test
+    void testPrometheusWithToken() throws Exception {
+        User user = new User();
+        user.setUserType(UserType.ADMIN);
+        when(userRepository.findByUserId(eq("ubcy8c"))).thenReturn(user);
+        String token = jwtTokenUtil.generateToken("ubcy8c", UserType.ADMIN);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .header("Authorization", "Bearer " + token))
+                .andReturn();
+
+        assertEquals(HttpStatus.OK, HttpStatus.valueOf(result.getResponse().getStatus()));
+        assertTrue(result.getResponse().getContentAsString().contains("application=\"cms\""));
+    }
+}
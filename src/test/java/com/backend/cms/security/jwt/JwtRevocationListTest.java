@@ -0,0 +1,50 @@
+package com.backend.cms.security.jwt;
+
+import com.backend.cms.model.TokenRevocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtRevocationListTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private JwtRevocationList jwtRevocationList;
+
+    @Test
+    void revokeUser_StatefulModeWritesNothing() {
+        ReflectionTestUtils.setField(jwtRevocationList, "authMode", "stateful");
+
+        jwtRevocationList.revokeUser("userId");
+
+        verifyNoInteractions(mongoTemplate);
+        assertFalse(jwtRevocationList.isRevoked("userId", new Date()));
+    }
+
+    @Test
+    void revokeUser_StatelessModeRejectsEarlierTokens() {
+        ReflectionTestUtils.setField(jwtRevocationList, "authMode", JwtTokenUtil.STATELESS_MODE);
+        Date issuedAt = new Date(System.currentTimeMillis() - 1000);
+
+        jwtRevocationList.revokeUser("userId");
+
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(TokenRevocation.class));
+        assertTrue(jwtRevocationList.isRevoked("userId", issuedAt));
+    }
+}
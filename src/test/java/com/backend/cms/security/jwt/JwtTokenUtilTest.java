@@ -0,0 +1,90 @@
+package com.backend.cms.security.jwt;
+
+import com.backend.cms.model.User;
+import com.backend.cms.model.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtTokenUtilTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private JwtRevocationList jwtRevocationList;
+
+    @InjectMocks
+    private JwtTokenUtil jwtTokenUtil;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "test-secret");
+        ReflectionTestUtils.setField(jwtTokenUtil, "authMode", "stateful");
+        // Cache of this node, the user is changed on another node so invalidateUser is never called here
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtTokenCache", new JwtTokenCache(100, 30, nanos::get));
+        token = jwtTokenUtil.generateToken("userId", UserType.ADMIN);
+    }
+
+    private static CustomUserDetails user(UserType userType) {
+        User user = new User();
+        user.setUserId("userId");
+        user.setUserType(userType);
+        return new CustomUserDetails(user);
+    }
+
+    @Test
+    void authenticate_DemotedUserLosesRoleOnceCachedEntryExpires() {
+        when(customUserDetailsService.loadUserByUsername("userId")).thenReturn(user(UserType.ADMIN), user(UserType.DEFAULT));
+
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(jwtTokenUtil.authenticate(token).getAuthorities()));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        Authentication authentication = jwtTokenUtil.authenticate(token);
+
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_DEFAULT")), List.copyOf(authentication.getAuthorities()));
+        verify(customUserDetailsService, times(2)).loadUserByUsername("userId");
+    }
+
+    @Test
+    void authenticate_DeletedUserIsRejectedOnceCachedEntryExpires() {
+        when(customUserDetailsService.loadUserByUsername("userId"))
+                .thenReturn(user(UserType.ADMIN))
+                .thenThrow(new UsernameNotFoundException("User not found with ID: userId"));
+
+        assertNotNull(jwtTokenUtil.authenticate(token));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        assertThrows(UsernameNotFoundException.class, () -> jwtTokenUtil.authenticate(token));
+    }
+
+    @Test
+    void authenticate_ServesCachedUserWithinTtl() {
+        when(customUserDetailsService.loadUserByUsername("userId")).thenReturn(user(UserType.ADMIN));
+
+        jwtTokenUtil.authenticate(token);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        jwtTokenUtil.authenticate(token);
+
+        verify(customUserDetailsService, times(1)).loadUserByUsername("userId");
+    }
+}
@@ -0,0 +1,40 @@
+package com.backend.cms.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryConsume_AllowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+        assertEquals(2, bucket.tryConsume(0).remaining());
+        assertEquals(1, bucket.tryConsume(0).remaining());
+        assertEquals(0, bucket.tryConsume(0).remaining());
+
+        TokenBucket.Result rejected = bucket.tryConsume(0);
+        assertFalse(rejected.allowed());
+        assertEquals(1, rejected.retryAfterSeconds());
+    }
+
+    @Test
+    void tryConsume_RefillsOverTime() {
+        TokenBucket bucket = new TokenBucket(2, 2, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+        assertFalse(bucket.tryConsume(0).allowed());
+
+        // Two tokens per second, so one is back after half a second
+        assertTrue(bucket.tryConsume(SECOND / 2).allowed());
+        assertFalse(bucket.tryConsume(SECOND / 2).allowed());
+
+        // An idle bucket never holds more than its capacity
+        TokenBucket.Result afterIdle = bucket.tryConsume(100 * SECOND);
+        assertTrue(afterIdle.allowed());
+        assertEquals(1, afterIdle.remaining());
+    }
+}
@@ -0,0 +1,124 @@
+package com.backend.cms.service;
+
+import com.backend.cms.dto.AttributeIndexDTO;
+import com.backend.cms.model.Attribute;
+import com.backend.cms.model.Collection;
+import com.backend.cms.model.ContentType;
+import com.backend.cms.model.IndexState;
+import com.backend.cms.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttributeIndexManagerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private AttributeIndexManager attributeIndexManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(attributeIndexManager, "enabled", true);
+        ReflectionTestUtils.setField(attributeIndexManager, "maxAttributeIndexes", 48);
+        ReflectionTestUtils.setField(attributeIndexManager, "statusRefreshMillis", 30000L);
+        lenient().when(mongoTemplate.indexOps(Post.class)).thenReturn(indexOperations);
+    }
+
+    private static Collection collectionFilterableBy(String... attributeNames) {
+        Collection collection = new Collection();
+        for (String attributeName : attributeNames) {
+            Attribute attribute = new Attribute(attributeName + "Id", attributeName, ContentType.TEXT, false);
+            attribute.setFilterable(true);
+            collection.getAttributes().add(attribute);
+        }
+        return collection;
+    }
+
+    private static IndexInfo attributeIndex(String attributeName) {
+        return IndexInfo.indexInfoOf(new Document("name", AttributeIndexManager.indexName(attributeName))
+                .append("key", new Document("collectionId", 1).append("attributes." + attributeName, 1).append("_id", 1)));
+    }
+
+    @Test
+    void statusOf_LooksUpUnknownIndexesOnlyOnce() {
+        Collection collection = collectionFilterableBy("Title", "Price");
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(attributeIndex("Title")));
+
+        attributeIndexManager.statusOf(collection);
+        List<AttributeIndexDTO> statuses = attributeIndexManager.statusOf(collection);
+
+        verify(indexOperations, times(1)).getIndexInfo();
+        assertEquals(IndexState.READY, statuses.get(0).getState());
+        assertEquals(IndexState.PENDING, statuses.get(1).getState());
+    }
+
+    @Test
+    void statusOf_LooksUpPendingIndexAgainAfterRefreshInterval() {
+        ReflectionTestUtils.setField(attributeIndexManager, "statusRefreshMillis", 0L);
+        Collection collection = collectionFilterableBy("Title");
+        // Built by another node after the first lookup
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(), List.of(attributeIndex("Title")));
+
+        assertEquals(IndexState.PENDING, attributeIndexManager.statusOf(collection).get(0).getState());
+        assertEquals(IndexState.READY, attributeIndexManager.statusOf(collection).get(0).getState());
+        // READY is not looked up again
+        assertEquals(IndexState.READY, attributeIndexManager.statusOf(collection).get(0).getState());
+
+        verify(indexOperations, times(2)).getIndexInfo();
+    }
+
+    @Test
+    void statusOf_UsesStatesOfReconcilePass() {
+        Collection collection = collectionFilterableBy("Title");
+        when(mongoTemplate.find(any(Query.class), eq(Collection.class))).thenReturn(List.of(collection));
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(attributeIndex("Title")));
+
+        attributeIndexManager.reconcile();
+        List<AttributeIndexDTO> statuses = attributeIndexManager.statusOf(collection);
+
+        // Only the reconcile pass listed the indexes
+        verify(indexOperations, times(1)).getIndexInfo();
+        assertEquals(IndexState.READY, statuses.get(0).getState());
+    }
+
+    @Test
+    void reconcile_RebuildsIndexWithoutIdTieBreak() {
+        Collection collection = collectionFilterableBy("Title");
+        when(mongoTemplate.find(any(Query.class), eq(Collection.class))).thenReturn(List.of(collection));
+        IndexInfo outdated = IndexInfo.indexInfoOf(new Document("name", "attr_Title")
+                .append("key", new Document("collectionId", 1).append("attributes.Title", 1)));
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(outdated));
+
+        attributeIndexManager.reconcile();
+
+        verify(indexOperations).dropIndex("attr_Title");
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations).ensureIndex(index.capture());
+        assertEquals(List.of("collectionId", "attributes.Title", "_id"), List.copyOf(index.getValue().getIndexKeys().keySet()));
+        assertEquals(IndexState.READY, attributeIndexManager.statusOf(collection).get(0).getState());
+    }
+}
@@ -0,0 +1,102 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionInvalidationListenerTest {
+
+    private static final Date START = new Date(1_000_000);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CollectionSchemaCache collectionSchemaCache;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private CollectionInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listener, "lastSeen", START);
+        lenient().when(mongoTemplate.indexOps(Collection.class)).thenReturn(indexOperations);
+    }
+
+    private static Collection changed(String collectionId, long lastModifiedMillis) {
+        Collection collection = new Collection();
+        collection.setCollectionId(collectionId);
+        collection.setLastModified(new Date(lastModifiedMillis));
+        return collection;
+    }
+
+    private void pollReturning(Collection... changed) {
+        when(mongoTemplate.find(any(Query.class), eq(Collection.class))).thenReturn(List.of(changed));
+        listener.poll();
+    }
+
+    @Test
+    void poll_InvalidatesChangeOnlyOnce() {
+        pollReturning(changed("c1", 2_000_000));
+        // The newest change matches lastModified >= lastSeen again on the next polls
+        pollReturning(changed("c1", 2_000_000));
+        pollReturning(changed("c1", 2_000_000));
+
+        verify(collectionSchemaCache, times(1)).invalidateById("c1");
+        assertEquals(1, listener.getInvalidationCount());
+    }
+
+    @Test
+    void poll_InvalidatesOtherChangeInSameMillisecond() {
+        pollReturning(changed("c1", 2_000_000));
+        pollReturning(changed("c1", 2_000_000), changed("c2", 2_000_000));
+
+        verify(collectionSchemaCache, times(1)).invalidateById("c1");
+        verify(collectionSchemaCache, times(1)).invalidateById("c2");
+        assertEquals(2, listener.getInvalidationCount());
+    }
+
+    @Test
+    void poll_InvalidatesLaterChangeOfSameCollection() {
+        pollReturning(changed("c1", 2_000_000));
+        pollReturning(changed("c1", 2_000_000), changed("c2", 3_000_000));
+        pollReturning(changed("c2", 3_000_000), changed("c1", 3_000_000));
+
+        verify(collectionSchemaCache, times(2)).invalidateById("c1");
+        verify(collectionSchemaCache, times(1)).invalidateById("c2");
+        assertEquals(3, listener.getInvalidationCount());
+    }
+
+    @Test
+    void poll_EnsuresLastModifiedIndexOnce() {
+        pollReturning();
+        pollReturning();
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations, times(1)).ensureIndex(index.capture());
+        assertEquals(new Document("lastModified", 1), index.getValue().getIndexKeys());
+    }
+}
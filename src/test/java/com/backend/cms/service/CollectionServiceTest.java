@@ -1,12 +1,14 @@
 package com.backend.cms.service;
 
 import com.backend.cms.exceptions.NotFoundException;
-import com.backend.cms.model.Collection;
+import com.backend.cms.model.*;
+import com.backend.cms.request.CreateAttributeRequest;
 import com.backend.cms.repository.CollectionRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
 
@@ -21,14 +23,18 @@ class CollectionServiceTest {
     @Mock
     private CollectionRepository collectionRepository;
 
+    @Spy
+    private CollectionSchemaCache collectionSchemaCache = new CollectionSchemaCache(100, 600);
+
+    @Mock
+    private AttributeIndexManager attributeIndexManager;
+
     @InjectMocks
     private CollectionService collectionService;
 
 
     @Test
     void testFindNewId() {
-        when(collectionRepository.findByCollectionId(anyString())).thenReturn(null);
-
         String result = collectionService.findNewId();
         assertNotNull(result);
         assertTrue(result.startsWith("c"));
@@ -62,4 +68,65 @@ class CollectionServiceTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    void testFindCollectionFailIfNotFound_UsesCachedSchema() {
+        Collection collection = new Collection();
+        collection.setCollectionId("collectionId");
+        when(collectionRepository.findByCollectionId("collectionId")).thenReturn(collection);
+
+        collectionService.findCollectionFailIfNotFound("collectionId");
+        Collection result = collectionService.findCollectionFailIfNotFound("collectionId");
+
+        assertEquals(collection, result);
+        verify(collectionRepository, times(1)).findByCollectionId("collectionId");
+    }
+
+    @Test
+    void testSave_InvalidatesCachedSchema() {
+        Collection collection = new Collection("name", "description");
+        collection.setCollectionId("collectionId");
+        when(collectionRepository.findByCollectionId("collectionId")).thenReturn(collection);
+
+        collectionService.findCollectionFailIfNotFound("collectionId");
+        collectionService.save(collection);
+        collectionService.findCollectionFailIfNotFound("collectionId");
+
+        verify(collectionRepository, times(2)).findByCollectionId("collectionId");
+    }
+
+    @Test
+    void testAddAttributeToCollection_FilterableAttributeRequestsIndex() {
+        Collection collection = new Collection("name", "description");
+        collection.setCollectionId("collectionId");
+        when(collectionRepository.findByCollectionId("collectionId")).thenReturn(collection);
+
+        CreateAttributeRequest request = new CreateAttributeRequest();
+        request.setName("Published");
+        request.setContentType(ContentType.DATE);
+        request.setDateType(DateType.DATE);
+        request.setFilterable(true);
+        Attribute attribute = collectionService.createAttributeInstance(request);
+
+        collectionService.addAttributeToCollection("collectionId", attribute, request);
+
+        assertTrue(collection.getAttributes().get(0).isFilterable());
+        verify(attributeIndexManager, times(1)).requestReconcile();
+    }
+
+    @Test
+    void testAddAttributeToCollection_PlainAttributeRequestsNoIndex() {
+        Collection collection = new Collection("name", "description");
+        collection.setCollectionId("collectionId");
+        when(collectionRepository.findByCollectionId("collectionId")).thenReturn(collection);
+
+        CreateAttributeRequest request = new CreateAttributeRequest();
+        request.setName("Published");
+        request.setContentType(ContentType.DATE);
+        request.setDateType(DateType.DATE);
+        Attribute attribute = collectionService.createAttributeInstance(request);
+
+        collectionService.addAttributeToCollection("collectionId", attribute, request);
+
+        verify(attributeIndexManager, never()).requestReconcile();
+    }
+}
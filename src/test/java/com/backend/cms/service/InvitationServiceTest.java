@@ -12,8 +12,6 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,7 +27,7 @@ class InvitationServiceTest {
     private UserService userService;
 
     @Mock
-    private JavaMailSender javaMailSender;
+    private MailOutbox mailOutbox;
 
     @InjectMocks
     private InvitationService invitationService;
@@ -53,7 +51,7 @@ class InvitationServiceTest {
         invitationService.sendInvitation(request);
 
         // Assert
-        verify(javaMailSender).send(Mockito.any(SimpleMailMessage.class));
+        verify(mailOutbox).enqueue(eq("newuser@example.com"), eq("Invitation to CMS System"), anyString());
     }
 
     @Test
@@ -127,7 +125,7 @@ class InvitationServiceTest {
         // the invitation should be able to be sent since the token has expired
         assertTrue(result);
         verify(userRepository, times(1)).save(any(User.class));
-        verify(javaMailSender, times(1)).send(Mockito.any(SimpleMailMessage.class));
+        verify(mailOutbox, times(1)).enqueue(any(), anyString(), anyString());
     }
 
 
@@ -150,7 +148,7 @@ class InvitationServiceTest {
         // the invitation should not be sent since the token is still valid
         assertFalse(result);
         verify(userRepository, never()).save(any(User.class));
-        verify(javaMailSender, never()).send(Mockito.any(SimpleMailMessage.class));
+        verify(mailOutbox, never()).enqueue(any(), anyString(), anyString());
     }
 
     @Test
@@ -166,7 +164,7 @@ class InvitationServiceTest {
             invitationService.resendInvitation(userId);
         });
         verify(userRepository, never()).save(any(User.class));
-        verify(javaMailSender, never()).send(Mockito.any(SimpleMailMessage.class));
+        verify(mailOutbox, never()).enqueue(any(), anyString(), anyString());
     }
 
 }
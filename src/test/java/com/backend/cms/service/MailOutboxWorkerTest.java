@@ -0,0 +1,81 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.OutboxMail;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MailOutboxWorkerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private JavaMailSender javaMailSender;
+
+    @InjectMocks
+    private MailOutboxWorker mailOutboxWorker;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(mailOutboxWorker, "maxAttempts", 3);
+        ReflectionTestUtils.setField(mailOutboxWorker, "backoffInitialMillis", 1000L);
+        ReflectionTestUtils.setField(mailOutboxWorker, "backoffMaxMillis", 60000L);
+    }
+
+    private OutboxMail mail(String recipient) {
+        OutboxMail mail = new OutboxMail(recipient, "Invitation to CMS System", "text");
+        mail.set_id(new ObjectId());
+        return mail;
+    }
+
+    @Test
+    void deliver_SendsWholeBatchInOneCall() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxMail.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        mailOutboxWorker.deliver(List.of(mail("first@example.com"), mail("second@example.com")));
+
+        verify(javaMailSender, times(1)).send(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+        assertEquals(2, mailOutboxWorker.getSentCount());
+    }
+
+    @Test
+    void deliver_RetriesOnlyFailedMessages() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(OutboxMail.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        doAnswer(invocation -> {
+            SimpleMailMessage failed = invocation.getArgument(1);
+            throw new MailSendException(Map.of(failed, new RuntimeException("Mailbox unavailable")));
+        }).when(javaMailSender).send(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+
+        mailOutboxWorker.deliver(List.of(mail("first@example.com"), mail("second@example.com")));
+
+        assertEquals(1, mailOutboxWorker.getSentCount());
+        assertEquals(1, mailOutboxWorker.getRetryCount());
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(OutboxMail.class));
+        Document retry = updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+        assertEquals("PENDING", retry.get("status").toString());
+        assertEquals(1, retry.get("attempts"));
+    }
+}
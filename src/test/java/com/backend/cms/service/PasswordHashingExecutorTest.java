@@ -0,0 +1,93 @@
+package com.backend.cms.service;
+
+import com.backend.cms.exceptions.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingExecutorTest {
+
+    @Test
+    void matches_UsesConfiguredPasswordEncoder() {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches("password", "hash")).thenReturn(true);
+        PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(passwordEncoder, 1, 1, 1000, 1);
+
+        assertTrue(hashingExecutor.matches("password", "hash"));
+        assertEquals(1, hashingExecutor.getHashCount());
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void matches_RejectedWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return true;
+        });
+        PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(passwordEncoder, 1, 1, 5000, 3);
+
+        // One login occupies the only thread and a second one waits in the queue
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        callers.submit(() -> hashingExecutor.matches("first", "hash"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> hashingExecutor.matches("second", "hash"));
+        while (hashingExecutor.getQueueDepth() == 0) {
+            Thread.sleep(10);
+        }
+
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class, () -> hashingExecutor.matches("third", "hash"));
+
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1, hashingExecutor.getRejectedCount());
+        release.countDown();
+        callers.shutdown();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void matches_TimeoutDropsQueuedHashAndCountsRunningOneSeparately() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return true;
+        });
+        PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(passwordEncoder, 1, 1, 200, 1);
+
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        Future<Boolean> first = callers.submit(() -> hashingExecutor.matches("first", "hash"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+
+        // Still waiting in the queue when it times out, so it never runs
+        assertThrows(ServiceUnavailableException.class, () -> hashingExecutor.matches("second", "hash"));
+        assertEquals(0, hashingExecutor.getQueueDepth());
+        assertEquals(1, hashingExecutor.getRejectedCount());
+
+        // Running when it times out, the hash goes on but is not counted as rejected
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof ServiceUnavailableException);
+        assertEquals(1, hashingExecutor.getTimedOutCount());
+        assertEquals(1, hashingExecutor.getRejectedCount());
+
+        release.countDown();
+        callers.shutdown();
+        hashingExecutor.shutdown();
+        verify(passwordEncoder, times(1)).matches(anyString(), anyString());
+    }
+}
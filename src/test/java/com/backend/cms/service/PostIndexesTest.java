@@ -0,0 +1,46 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostIndexesTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private PostIndexes postIndexes;
+
+    @Test
+    void ensureIndexes_CreatesCursorIndex() {
+        when(mongoTemplate.indexOps(Post.class)).thenReturn(indexOperations);
+
+        postIndexes.ensureIndexes();
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations).ensureIndex(index.capture());
+        Document keys = index.getValue().getIndexKeys();
+        assertEquals(List.of("collectionId", "_id"), List.copyOf(keys.keySet()));
+        assertEquals(1, keys.get("collectionId"));
+        assertEquals(1, keys.get("_id"));
+        assertEquals(PostIndexes.CURSOR_INDEX, index.getValue().getIndexOptions().getString("name"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import com.backend.cms.model.ContentType;
+import com.backend.cms.model.Post;
+import com.backend.cms.model.TextAttribute;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostSearchIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private PostSearchIndex postSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(postSearchIndex, "backfillBatchSize", 2);
+        ReflectionTestUtils.setField(postSearchIndex, "running", true);
+    }
+
+    private static CloseableIterator<Post> iteratorOf(List<Post> posts) {
+        Iterator<Post> iterator = posts.iterator();
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Post next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void backfill_WritesSearchTextInBulkBatches() {
+        TextAttribute titleAttribute = new TextAttribute();
+        titleAttribute.setName("Title");
+        titleAttribute.setContentType(ContentType.TEXT);
+        Collection collection = new Collection();
+        collection.setCollectionId("c1");
+        collection.setAttributes(List.of(titleAttribute));
+
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            posts.add(new Post(new ObjectId(), "p" + i, "c1", "userId", new HashMap<>(Map.of("Title", "Title " + i)), null, null, null, 0L));
+        }
+        // Stored without attributes
+        posts.add(new Post(new ObjectId(), "p3", "c1", "userId", null, null, null, null, 0L));
+
+        when(mongoTemplate.findAll(Collection.class)).thenReturn(List.of(collection));
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(iteratorOf(posts));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        assertEquals(4, postSearchIndex.backfill());
+
+        verify(bulkOperations, times(4)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Post.class));
+    }
+}
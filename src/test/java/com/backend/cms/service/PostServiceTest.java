@@ -1,17 +1,45 @@
 package com.backend.cms.service;
 
+import com.backend.cms.dto.BulkPostResultDTO;
+import com.backend.cms.dto.PostPageDTO;
+import com.backend.cms.dto.RawPostPageDTO;
+import com.backend.cms.dto.SearchPageDTO;
+import com.backend.cms.exceptions.ConflictException;
 import com.backend.cms.model.*;
 import com.backend.cms.repository.PostRepository;
 import com.backend.cms.request.CreatePostRequest;
+import com.backend.cms.request.EditPostRequest;
+import com.backend.cms.request.PostQueryRequest;
+import com.backend.cms.utils.FieldSelection;
+import com.backend.cms.utils.PageCursor;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
-
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,6 +60,21 @@ class PostServiceTest {
     @Mock
     private SecurityHelper securityHelper;
 
+    @Spy
+    private CollectionSchemaCache collectionSchemaCache = new CollectionSchemaCache(100, 600);
+
+    @Mock
+    private PostUniquenessIndex postUniquenessIndex;
+
+    @Mock
+    private PostSearchIndex postSearchIndex;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
     @Test
     void createPost_SuccessfulCreation() {
         // Mocking data
@@ -537,4 +580,501 @@ class PostServiceTest {
         // Perform the test
         assertDoesNotThrow(() -> postService.createPost(collectionId, request));
     }
+
+    @Test
+    void findPostPage_ReturnsNextCursorWhenMorePostsExist() {
+        // Mocking one post more than the requested page size
+        Post first = new Post();
+        first.set_id(new ObjectId());
+        Post second = new Post();
+        second.set_id(new ObjectId());
+        Post third = new Post();
+        third.set_id(new ObjectId());
+        when(postRepository.findPage(eq("collectionId"), isNull(), eq(3), isNull())).thenReturn(Arrays.asList(first, second, third));
+
+        PostPageDTO page = postService.findPostPageByCollectionId("collectionId", null, 2, null);
+
+        assertEquals(2, page.getPosts().size());
+        assertEquals(PageCursor.encode(second.get_id()), page.getNextCursor());
+    }
+
+    @Test
+    void findPostPage_LastPageHasNoNextCursor() {
+        ObjectId lastId = new ObjectId();
+        Post post = new Post();
+        post.set_id(new ObjectId());
+        when(postRepository.findPage(eq("collectionId"), eq(lastId), eq(3), isNull())).thenReturn(List.of(post));
+
+        PostPageDTO page = postService.findPostPageByCollectionId("collectionId", PageCursor.encode(lastId), 2, null);
+
+        assertEquals(1, page.getPosts().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findRawPostPage_ReturnsNextCursorWhenMorePostsExist() {
+        // Mocking one stored post more than the requested page size
+        List<RawBsonDocument> posts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            posts.add(new RawBsonDocument(new BsonDocument("_id", new BsonObjectId(new ObjectId())).append("postId", new BsonString("p" + i)),
+                    new BsonDocumentCodec()));
+        }
+        when(postRepository.findRawPage(eq("collectionId"), isNull(), eq(3), isNull())).thenReturn(posts);
+
+        RawPostPageDTO page = postService.findRawPostPageByCollectionId("collectionId", null, 2, null);
+
+        assertEquals(2, page.getPosts().size());
+        assertEquals(PageCursor.encode(posts.get(1).getObjectId("_id").getValue()), page.getNextCursor());
+    }
+
+    @Test
+    void findPostPage_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> postService.findPostPageByCollectionId("collectionId", "not a cursor", 2, null));
+    }
+
+    @Test
+    void findPostPage_PassesSelectedFieldsToProjection() {
+        List<String> attributeNames = FieldSelection.parse("Title, Date,Title");
+        Post post = new Post();
+        post.set_id(new ObjectId());
+        post.setAttributes(new HashMap<>(Map.of("Title", "Blogpost")));
+        when(postRepository.findPage(eq("collectionId"), isNull(), eq(3), eq(List.of("Title", "Date")))).thenReturn(List.of(post));
+
+        PostPageDTO page = postService.findPostPageByCollectionId("collectionId", null, 2, attributeNames);
+
+        assertEquals(Map.of("Title", "Blogpost"), page.getPosts().get(0).getAttributes());
+    }
+
+    @Test
+    void fieldSelection_RejectsNestedPaths() {
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.parse("Title,attributes.Body"));
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.parse("$where"));
+        assertNull(FieldSelection.parse(" , "));
+    }
+
+    private Collection collectionWithUniqueTitle() {
+        TextAttribute textAttribute = new TextAttribute();
+        textAttribute.setName("Title");
+        textAttribute.setContentType(ContentType.TEXT);
+        textAttribute.setTextType(TextType.SHORT);
+        textAttribute.setRequired(true);
+        textAttribute.setUnique(true);
+        textAttribute.setMinimumLength(2);
+        textAttribute.setMaximumLength(50);
+
+        Collection mockCollection = new Collection();
+        mockCollection.setAttributes(Collections.singletonList(textAttribute));
+        return mockCollection;
+    }
+
+    @Test
+    void createPost_DuplicateUniqueValue() {
+        String collectionId = "validCollectionId";
+        CreatePostRequest request = new CreatePostRequest();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("Title", "Blogpost");
+        request.setAttributes(attributes);
+
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithUniqueTitle());
+        when(postUniquenessIndex.isTaken(collectionId, "Title", "Blogpost", null)).thenReturn(true);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> postService.createPost(collectionId, request));
+
+        assertEquals("Attribute 'Title' must have a unique value.", exception.getMessage());
+        verify(postRepository, never()).save(any(Post.class));
+    }
+
+    @Test
+    void createPost_ConcurrentDuplicateRejectedByIndex() {
+        String collectionId = "validCollectionId";
+        CreatePostRequest request = new CreatePostRequest();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("Title", "Blogpost");
+        request.setAttributes(attributes);
+
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithUniqueTitle());
+        when(postUniquenessIndex.keysFor(eq(collectionId), eq(List.of("Title")), anyMap())).thenReturn(List.of("validCollectionId|Title|blogpost"));
+        when(postRepository.save(any(Post.class))).thenThrow(new DuplicateKeyException("duplicate key"));
+
+        assertThrows(IllegalArgumentException.class, () -> postService.createPost(collectionId, request));
+    }
+
+    private CreatePostRequest postWithTitle(String title) {
+        CreatePostRequest request = new CreatePostRequest();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("Title", title);
+        request.setAttributes(attributes);
+        return request;
+    }
+
+    @Test
+    void createPosts_InBatchDuplicateIsRejected() {
+        String collectionId = "validCollectionId";
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithUniqueTitle());
+        when(postUniquenessIndex.keysFor(eq(collectionId), eq(List.of("Title")), anyMap())).thenReturn(List.of("validCollectionId|Title|blogpost"));
+        when(postUniquenessIndex.findTakenKeys(anySet())).thenReturn(Set.of());
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Post.class))).thenReturn(bulkOperations);
+
+        BulkPostResultDTO result = postService.createPosts(collectionId, List.of(postWithTitle("Blogpost"), postWithTitle(" blogpost ")), false);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(BulkPostResultDTO.Status.FAILED, result.getResults().get(1).getStatus());
+        assertEquals("Attribute 'Title' must have a unique value.", result.getResults().get(1).getError());
+    }
+
+    @Test
+    void createPosts_OrderedSkipsPostsAfterFailure() {
+        String collectionId = "validCollectionId";
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithUniqueTitle());
+        when(postUniquenessIndex.findTakenKeys(anySet())).thenReturn(Set.of());
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.ORDERED), eq(Post.class))).thenReturn(bulkOperations);
+
+        BulkPostResultDTO result = postService.createPosts(collectionId, List.of(postWithTitle("First"), postWithTitle("L"), postWithTitle("Third")), true);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getSkipped());
+        assertEquals("Attribute 'Title' must have a minimum length of 2", result.getResults().get(1).getError());
+        assertEquals(BulkPostResultDTO.Status.SKIPPED, result.getResults().get(2).getStatus());
+    }
+
+    @Test
+    void updatePost_AppliesChangedAttributesWithSingleUpdate() {
+        String collectionId = "validCollectionId";
+        EditPostRequest request = new EditPostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Price", 7)));
+        request.setVersion(3L);
+
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithTitleAndPrice());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Post.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        postService.updatePost(collectionId, "postId", request);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Post.class));
+        assertEquals(3L, query.getValue().getQueryObject().get("version"));
+        assertEquals(7L, update.getValue().getUpdateObject().get("$set", Document.class).get("attributes.Price"));
+        // Neither unique nor searchable, so the post is not read first
+        verify(postRepository, never()).findByPostId(anyString());
+    }
+
+    @Test
+    void updatePost_StaleVersionIsConflict() {
+        String collectionId = "validCollectionId";
+        EditPostRequest request = new EditPostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Title", "Blogpost")));
+        request.setVersion(1L);
+
+        Post existingPost = new Post();
+        existingPost.setPostId("postId");
+        existingPost.setAttributes(new HashMap<>(Map.of("Title", "Old title")));
+
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithUniqueTitle());
+        when(postRepository.findByPostId("postId")).thenReturn(existingPost);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Post.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.exists(any(Query.class), eq(Post.class))).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> postService.updatePost(collectionId, "postId", request));
+    }
+
+    @Test
+    void updatePost_PostStoredWithoutAttributes() {
+        String collectionId = "validCollectionId";
+        EditPostRequest request = new EditPostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Title", "Blogpost")));
+
+        Post existingPost = new Post();
+        existingPost.setPostId("postId");
+
+        when(collectionService.findCollectionFailIfNotFound(eq(collectionId))).thenReturn(collectionWithUniqueTitle());
+        when(postRepository.findByPostId("postId")).thenReturn(existingPost);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Post.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertDoesNotThrow(() -> postService.updatePost(collectionId, "postId", request));
+
+        verify(postUniquenessIndex).keysFor(eq(collectionId), anyList(), eq(Map.of("Title", "Blogpost")));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(Post.class));
+    }
+
+    private Collection collectionWithTitleAndPrice() {
+        NumberAttribute priceAttribute = new NumberAttribute();
+        priceAttribute.setName("Price");
+        priceAttribute.setContentType(ContentType.NUMBER);
+        priceAttribute.setFormatType(FormatType.INTEGER);
+
+        Collection collection = collectionWithUniqueTitle();
+        collection.setAttributes(Arrays.asList(collection.getAttributes().get(0), priceAttribute));
+        return collection;
+    }
+
+    private PostQueryRequest.Filter filter(String attribute, PostQueryRequest.Operator op) {
+        PostQueryRequest.Filter filter = new PostQueryRequest.Filter();
+        filter.setAttribute(attribute);
+        filter.setOp(op);
+        return filter;
+    }
+
+    @Test
+    void queryPosts_CompilesTypedFiltersAndSort() {
+        PostQueryRequest.Filter priceRange = filter("Price", PostQueryRequest.Operator.RANGE);
+        priceRange.setGte("10");
+        priceRange.setLt(20);
+        PostQueryRequest.Filter titlePrefix = filter("Title", PostQueryRequest.Operator.PREFIX);
+        titlePrefix.setValue("Blog.");
+        PostQueryRequest.SortOrder sort = new PostQueryRequest.SortOrder();
+        sort.setAttribute("Price");
+        sort.setDirection(PostQueryRequest.Direction.DESC);
+
+        PostQueryRequest request = new PostQueryRequest();
+        request.setFilters(List.of(titlePrefix, priceRange));
+        request.setSort(sort);
+        request.setSize(2);
+
+        when(collectionService.findCollectionFailIfNotFound("collectionId")).thenReturn(collectionWithTitleAndPrice());
+        when(postRepository.find(any(Query.class))).thenReturn(List.of());
+
+        postService.queryPosts("collectionId", request);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(postRepository).find(query.capture());
+        List<?> conditions = query.getValue().getQueryObject().get("$and", List.class);
+        Document range = ((Document) conditions.get(0)).get("attributes.Price", Document.class);
+        assertEquals(10L, range.get("$gte"));
+        assertEquals(20L, range.get("$lt"));
+        assertEquals("^Blog\\.", ((Document) conditions.get(1)).get("attributes.Title").toString());
+        assertEquals(-1, query.getValue().getSortObject().get("attributes.Price"));
+        assertEquals(-1, query.getValue().getSortObject().get("_id"));
+        assertEquals(3, query.getValue().getLimit());
+    }
+
+    @Test
+    void queryPosts_PagesPastEmptySortValues() {
+        PostQueryRequest.SortOrder sort = new PostQueryRequest.SortOrder();
+        sort.setAttribute("Price");
+        sort.setDirection(PostQueryRequest.Direction.ASC);
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSort(sort);
+        request.setSize(2);
+
+        // Empty prices are stored as null and sort before every number
+        Map<String, Object> emptyPrice = new HashMap<>();
+        emptyPrice.put("Price", null);
+        Post first = new Post(new ObjectId(), "p1", "collectionId", "userId", new HashMap<>(emptyPrice), null, null, null, 0L);
+        Post second = new Post(new ObjectId(), "p2", "collectionId", "userId", new HashMap<>(emptyPrice), null, null, null, 0L);
+        Post third = new Post(new ObjectId(), "p3", "collectionId", "userId", new HashMap<>(Map.of("Price", 5L)), null, null, null, 0L);
+        when(collectionService.findCollectionFailIfNotFound("collectionId")).thenReturn(collectionWithTitleAndPrice());
+        when(postRepository.find(any(Query.class))).thenReturn(new ArrayList<>(List.of(first, second, third)), List.of());
+
+        PostPageDTO page = postService.queryPosts("collectionId", request);
+
+        assertEquals("", page.getPosts().get(1).getAttributes().get("Price"));
+        PageCursor.Keyset keyset = PageCursor.decodeKeyset(page.getNextCursor());
+        assertEquals(second.get_id(), keyset.lastId());
+        assertNull(keyset.lastSortValue());
+
+        request.setCursor(page.getNextCursor());
+        assertDoesNotThrow(() -> postService.queryPosts("collectionId", request));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(postRepository, times(2)).find(query.capture());
+        List<?> conditions = query.getAllValues().get(1).getQueryObject().get("$and", List.class);
+        List<?> afterKey = ((Document) conditions.get(0)).get("$or", List.class);
+        // The remaining empty prices after the cursor, then every post with a price
+        assertEquals(2, afterKey.size());
+        assertEquals(new Document("$ne", null), ((Document) afterKey.get(1)).get("attributes.Price"));
+    }
+
+    @Test
+    void queryPosts_RejectsFilterNotSupportedByContentType() {
+        PostQueryRequest.Filter pricePrefix = filter("Price", PostQueryRequest.Operator.PREFIX);
+        pricePrefix.setValue("1");
+        PostQueryRequest request = new PostQueryRequest();
+        request.setFilters(List.of(pricePrefix));
+
+        when(collectionService.findCollectionFailIfNotFound("collectionId")).thenReturn(collectionWithTitleAndPrice());
+
+        assertThrows(IllegalArgumentException.class, () -> postService.queryPosts("collectionId", request));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Post.class));
+    }
+
+    private Collection collectionWithAgeAndDate() {
+        NumberAttribute numberAttribute = new NumberAttribute();
+        numberAttribute.setName("Age");
+        numberAttribute.setContentType(ContentType.NUMBER);
+        numberAttribute.setFormatType(FormatType.INTEGER);
+        numberAttribute.setMinimumValue(2);
+        numberAttribute.setMaximumValue(50);
+
+        DateAttribute dateAttribute = new DateAttribute();
+        dateAttribute.setName("Date");
+        dateAttribute.setContentType(ContentType.DATE);
+        dateAttribute.setDateType(DateType.DATE);
+
+        Collection collection = new Collection();
+        collection.setCollectionId("validCollectionId");
+        collection.setAttributes(Arrays.asList(numberAttribute, dateAttribute));
+        return collection;
+    }
+
+    @Test
+    void createPost_StoresEmptyTypedValuesAsNull() {
+        CreatePostRequest request = new CreatePostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Age", "15", "Date", "")));
+
+        when(collectionService.findCollectionFailIfNotFound(eq("validCollectionId"))).thenReturn(collectionWithAgeAndDate());
+        when(securityHelper.getCurrentUserId()).thenReturn("userId");
+
+        postService.createPost("validCollectionId", request);
+
+        ArgumentCaptor<Post> saved = ArgumentCaptor.forClass(Post.class);
+        verify(postRepository).save(saved.capture());
+        assertTrue(saved.getValue().getAttributes().containsKey("Date"));
+        assertNull(saved.getValue().getAttributes().get("Date"));
+    }
+
+    @Test
+    void createPost_StoresTypedDateAndNumberValues() {
+        CreatePostRequest request = new CreatePostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Age", "15", "Date", "2023-02-02")));
+
+        when(collectionService.findCollectionFailIfNotFound(eq("validCollectionId"))).thenReturn(collectionWithAgeAndDate());
+        when(securityHelper.getCurrentUserId()).thenReturn("userId");
+
+        postService.createPost("validCollectionId", request);
+
+        ArgumentCaptor<Post> saved = ArgumentCaptor.forClass(Post.class);
+        verify(postRepository).save(saved.capture());
+        assertEquals(15L, saved.getValue().getAttributes().get("Age"));
+        assertEquals(DateType.DATE.parse("2023-02-02"), saved.getValue().getAttributes().get("Date"));
+    }
+
+    @Test
+    void createPost_FractionForIntegerAttributeIsRejected() {
+        CreatePostRequest request = new CreatePostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Age", 15.5)));
+
+        when(collectionService.findCollectionFailIfNotFound(eq("validCollectionId"))).thenReturn(collectionWithAgeAndDate());
+
+        assertThrows(IllegalArgumentException.class, () -> postService.createPost("validCollectionId", request));
+    }
+
+    @Test
+    void findPost_ReturnsStoredDatesInTheirFormat() {
+        Post post = new Post();
+        post.setPostId("postId");
+        post.setCollectionId("validCollectionId");
+        post.setAttributes(new HashMap<>(Map.of("Age", 15L, "Date", DateType.DATE.parse("2023-02-02"))));
+
+        when(postRepository.findByPostId("postId")).thenReturn(post);
+        when(collectionService.findCollectionFailIfNotFound(eq("validCollectionId"))).thenReturn(collectionWithAgeAndDate());
+
+        Post result = postService.findPostFailIfNotFound("postId");
+
+        assertEquals("2023-02-02", result.getAttributes().get("Date"));
+        assertEquals(15L, result.getAttributes().get("Age"));
+    }
+
+    @Test
+    void searchPosts_RanksAndHighlightsMatches() {
+        Post first = new Post();
+        first.setPostId("p1");
+        first.setAttributes(new HashMap<>(Map.of("Title", "Running a <b>blog</b>")));
+        first.setScore(1.5f);
+        Post second = new Post();
+        second.setPostId("p2");
+        second.setAttributes(new HashMap<>(Map.of("Title", "Blogs")));
+        second.setScore(0.75f);
+
+        when(collectionService.findCollectionFailIfNotFound("collectionId")).thenReturn(collectionWithUniqueTitle());
+        when(postSearchIndex.search(eq("collectionId"), eq("blog"), eq(0), eq(2), isNull())).thenReturn(Arrays.asList(first, second));
+
+        SearchPageDTO page = postService.searchPosts("collectionId", "blog", null, 1, null);
+
+        assertEquals(1, page.getHits().size());
+        assertEquals(1, page.getNextPage());
+        assertEquals(1.5f, page.getHits().get(0).getScore());
+        assertEquals("Running a <em>blog</em>", page.getHits().get(0).getHighlights().get("Title"));
+    }
+
+    @Test
+    void searchPosts_RejectsPagesBeyondTheResultLimit() {
+        when(collectionService.findCollectionFailIfNotFound("collectionId")).thenReturn(collectionWithUniqueTitle());
+
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts("collectionId", "blog", 100, 50, null));
+        verify(postSearchIndex, never()).search(anyString(), anyString(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void updatePost_RewritesSearchTextShorterThanSearchableAttributes() {
+        EditPostRequest request = new EditPostRequest();
+        request.setAttributes(new HashMap<>(Map.of("Body", "<p>Updated body</p>")));
+
+        TextAttribute titleAttribute = new TextAttribute();
+        titleAttribute.setName("Title");
+        titleAttribute.setContentType(ContentType.TEXT);
+        titleAttribute.setMinimumLength(0);
+        RichTextAttribute bodyAttribute = new RichTextAttribute();
+        bodyAttribute.setName("Body");
+        bodyAttribute.setContentType(ContentType.RICHTEXT);
+        bodyAttribute.setMinimumLength(1);
+        Collection collection = new Collection();
+        collection.setAttributes(Arrays.asList(titleAttribute, bodyAttribute));
+
+        // Written before Body was added, so its search text only has the title
+        Post existingPost = new Post();
+        existingPost.setPostId("postId");
+        existingPost.setAttributes(new HashMap<>(Map.of("Title", "Old title")));
+        existingPost.setSearchText(List.of("Old title"));
+        existingPost.setVersion(4L);
+
+        when(collectionService.findCollectionFailIfNotFound(eq("collectionId"))).thenReturn(collection);
+        when(postRepository.findByPostId("postId")).thenReturn(existingPost);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Post.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        postService.updatePost("collectionId", "postId", request);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Post.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(List.of("Old title", "Updated body"), set.get("searchText"));
+        assertFalse(set.keySet().stream().anyMatch(key -> key.startsWith("searchText.")));
+        assertEquals(4L, query.getValue().getQueryObject().get("version"));
+    }
+
+    @Test
+    void validateSettings_RejectsZeroStreamFlushInterval() {
+        ReflectionTestUtils.setField(postService, "streamFlushInterval", 0);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> postService.validateSettings());
+        assertEquals("posts.stream.flush-interval must be greater than 0", exception.getMessage());
+    }
+
+    @Test
+    void queryPosts_PagesDescendingOnIdInSortDirection() {
+        PostQueryRequest.SortOrder sort = new PostQueryRequest.SortOrder();
+        sort.setAttribute("Price");
+        sort.setDirection(PostQueryRequest.Direction.DESC);
+        PostQueryRequest request = new PostQueryRequest();
+        request.setSort(sort);
+        request.setSize(1);
+
+        Post first = new Post(new ObjectId(), "p1", "collectionId", "userId", new HashMap<>(Map.of("Price", 5L)), null, null, null, 0L);
+        Post second = new Post(new ObjectId(), "p2", "collectionId", "userId", new HashMap<>(Map.of("Price", 5L)), null, null, null, 0L);
+        when(collectionService.findCollectionFailIfNotFound("collectionId")).thenReturn(collectionWithTitleAndPrice());
+        when(postRepository.find(any(Query.class))).thenReturn(new ArrayList<>(List.of(second, first)), List.of());
+
+        request.setCursor(postService.queryPosts("collectionId", request).getNextCursor());
+        postService.queryPosts("collectionId", request);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(postRepository, times(2)).find(query.capture());
+        List<?> conditions = query.getAllValues().get(1).getQueryObject().get("$and", List.class);
+        List<?> afterKey = ((Document) conditions.get(0)).get("$or", List.class);
+        // Posts with the same price continue below the _id of the cursor
+        List<?> sameValue = ((Document) afterKey.get(1)).get("$and", List.class);
+        assertEquals(new Document("$lt", second.get_id()), ((Document) sameValue.get(1)).get("_id"));
+    }
 }
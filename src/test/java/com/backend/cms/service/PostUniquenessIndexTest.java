@@ -0,0 +1,107 @@
+package com.backend.cms.service;
+
+import com.backend.cms.model.Collection;
+import com.backend.cms.model.ContentType;
+import com.backend.cms.model.Post;
+import com.backend.cms.model.TextAttribute;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostUniquenessIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private PostUniquenessIndex postUniquenessIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(postUniquenessIndex, "backfillBatchSize", 2);
+        ReflectionTestUtils.setField(postUniquenessIndex, "running", true);
+    }
+
+    private static CloseableIterator<Post> iteratorOf(List<Post> posts) {
+        Iterator<Post> iterator = posts.iterator();
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Post next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Test
+    void backfill_WritesKeysInBulkBatchesAndSkipsDuplicates() {
+        TextAttribute titleAttribute = new TextAttribute();
+        titleAttribute.setName("Title");
+        titleAttribute.setContentType(ContentType.TEXT);
+        titleAttribute.setUnique(true);
+        Collection collection = new Collection();
+        collection.setCollectionId("c1");
+        collection.setAttributes(List.of(titleAttribute));
+
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            posts.add(new Post(new ObjectId(), "p" + i, "c1", "userId", new HashMap<>(Map.of("Title", "Same title")), null, null, null, 0L));
+        }
+
+        when(mongoTemplate.findAll(Collection.class)).thenReturn(List.of(collection));
+        when(mongoTemplate.count(any(Query.class), eq(Post.class))).thenReturn(3L);
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(iteratorOf(posts));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        MongoBulkWriteException bulkWriteException = new MongoBulkWriteException(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()),
+                List.of(duplicate), null, new ServerAddress());
+        when(bulkOperations.execute())
+                .thenThrow(new BulkOperationException(bulkWriteException.getMessage(), bulkWriteException))
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        assertDoesNotThrow(() -> postUniquenessIndex.backfill());
+
+        verify(bulkOperations, times(3)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Post.class));
+    }
+}
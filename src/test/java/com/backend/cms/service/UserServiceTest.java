@@ -2,7 +2,11 @@ package com.backend.cms.service;
 
 import com.backend.cms.exceptions.NotFoundException;
 import com.backend.cms.model.User;
+import com.backend.cms.model.UserType;
 import com.backend.cms.repository.UserRepository;
+import com.backend.cms.request.UpdateUserRequest;
+import com.backend.cms.security.jwt.JwtRevocationList;
+import com.backend.cms.security.jwt.JwtTokenCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -23,6 +27,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private JwtTokenCache jwtTokenCache;
+
+    @Mock
+    private JwtRevocationList jwtRevocationList;
+
     @InjectMocks
     private UserService userService;
 
@@ -63,14 +73,22 @@ class UserServiceTest {
 
     @Test
     void testFindNewId() {
-        when(userRepository.findByUserId(anyString())).thenReturn(null);
-
         String result = userService.findNewId();
 
         assertNotNull(result);
         assertTrue(result.startsWith("u"));
     }
 
+    @Test
+    void testFindNewId_UniqueAndOrdered() {
+        String first = userService.findNewId();
+        String second = userService.findNewId();
+
+        assertNotEquals(first, second);
+        assertTrue(first.compareTo(second) < 0);
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void testSave() {
         User user = new User();
@@ -80,5 +98,61 @@ class UserServiceTest {
         verify(userRepository, times(1)).save(user);
     }
 
+    @Test
+    void testSave_InvalidatesCachedTokens() {
+        User user = new User();
+        user.setUserId("userId");
+
+        userService.save(user);
+
+        verify(jwtTokenCache, times(1)).invalidateUser("userId");
+    }
+
+    @Test
+    void testDeleteUser_InvalidatesCachedTokens() {
+        User user = new User();
+        user.setUserId("userId");
+
+        userService.deleteUser(user);
+
+        verify(userRepository, times(1)).delete(user);
+        verify(jwtTokenCache, times(1)).invalidateUser("userId");
+        verify(jwtRevocationList, times(1)).revokeUser("userId");
+    }
+
+    private UpdateUserRequest profile(String firstName) {
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setFirstName(firstName);
+        request.setLastName("User");
+        request.setEmail("user@example.com");
+        return request;
+    }
+
+    @Test
+    void testUpdateUser_ProfileChangeKeepsTokens() {
+        User user = new User();
+        user.setUserId("userId");
+        user.setUserType(UserType.EDITOR);
+        UpdateUserRequest request = profile("New");
+        request.setUserType(UserType.EDITOR);
 
+        userService.updateUser(user, request);
+
+        verify(jwtTokenCache, times(1)).invalidateUser("userId");
+        verify(jwtRevocationList, never()).revokeUser(any());
+    }
+
+    @Test
+    void testUpdateUser_UserTypeChangeRevokesTokens() {
+        User user = new User();
+        user.setUserId("userId");
+        user.setUserType(UserType.ADMIN);
+        UpdateUserRequest request = profile("Same");
+        request.setUserType(UserType.DEFAULT);
+
+        userService.updateUser(user, request);
+
+        verify(jwtTokenCache, times(1)).invalidateUser("userId");
+        verify(jwtRevocationList, times(1)).revokeUser("userId");
+    }
 }